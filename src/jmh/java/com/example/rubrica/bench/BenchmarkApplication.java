@@ -0,0 +1,49 @@
+package com.example.rubrica.bench;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.rubrica.RubricaApplication;
+
+/**
+ * Avvia l'applicazione per i benchmark su un database H2 dedicato, popolato dal generatore
+ * sintetico al posto di data.sql.
+ */
+final class BenchmarkApplication {
+
+    private static final AtomicInteger DATABASES = new AtomicInteger();
+
+    private BenchmarkApplication() {
+    }
+
+    /**
+     * Gli {@code extraArgs} ({@code --chiave=valore}) sostituiscono i default con la stessa chiave,
+     * ad esempio per usare un profilo con un proprio datasource.
+     */
+    static ConfigurableApplicationContext start(int rows, boolean web, String... extraArgs) {
+        Map<String, String> args = new LinkedHashMap<>();
+        args.put("spring.datasource.url", "jdbc:h2:mem:bench" + DATABASES.incrementAndGet());
+        args.put("spring.sql.init.mode", "never");
+        args.put("rubrica.seed.rows", Integer.toString(rows));
+        args.put("server.port", "0");
+        args.put("spring.main.banner-mode", "off");
+        args.put("logging.level.root", "WARN");
+        args.put("logging.level.com.example.rubrica", "WARN");
+        args.put("logging.level.rubrica.access", "WARN");
+        for (String arg : extraArgs) {
+            int eq = arg.indexOf('=');
+            args.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+
+        SpringApplication application = new SpringApplication(RubricaApplication.class);
+        application.setWebApplicationType(web ? WebApplicationType.SERVLET : WebApplicationType.NONE);
+        return application.run(args.entrySet().stream()
+                .map(e -> "--" + e.getKey() + "=" + e.getValue())
+                .toArray(String[]::new));
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.rubrica.bench;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import com.example.rubrica.repository.ContattoRepository;
+
+/**
+ * Endpoint REST end-to-end (dispatch, controller, service, serializzazione JSON) tramite MockMvc.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ContattoControllerBenchmark {
+
+    @Param({ "10000" })
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private MockMvc mockMvc;
+    private long existingId;
+
+    @Setup
+    public void setup() {
+        context = BenchmarkApplication.start(rows, true);
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+        existingId = context.getBean(ContattoRepository.class).findFirstSlice(null, null, PageRequest.of(0, 1))
+                .getContent().get(0).getId();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] findAll() throws Exception {
+        return perform(get("/api/contatti"));
+    }
+
+    @Benchmark
+    public byte[] findById() throws Exception {
+        return perform(get("/api/contatti/{id}", existingId));
+    }
+
+    @Benchmark
+    public byte[] search() throws Exception {
+        return perform(get("/api/contatti/search").param("nome", "Mario").param("cognome", "Rossi"));
+    }
+
+    @Benchmark
+    public byte[] searchLike() throws Exception {
+        return perform(get("/api/contatti/searchlike").param("nome", "ccol"));
+    }
+
+    @Benchmark
+    public byte[] searchSort() throws Exception {
+        return perform(get("/api/contatti/searchsort").param("cognome", "ross").param("page", "3"));
+    }
+
+    @Benchmark
+    public byte[] scroll() throws Exception {
+        return perform(get("/api/contatti/scroll").param("size", "20"));
+    }
+
+    private byte[] perform(RequestBuilder request) throws Exception {
+        return mockMvc.perform(request).andReturn().getResponse().getContentAsByteArray();
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.rubrica.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.rubrica.dto.ContattoRequest;
+import com.example.rubrica.dto.ContattoResponse;
+import com.example.rubrica.mapper.ContattoMapper;
+import com.example.rubrica.model.Contatto;
+import com.example.rubrica.seed.SyntheticContattoGenerator;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ContattoMapperBenchmark {
+
+    private ContattoMapper mapper;
+    private ContattoRequest request;
+    private Contatto entity;
+
+    @Setup
+    public void setup() {
+        mapper = new ContattoMapper();
+        request = new SyntheticContattoGenerator(42).next();
+        entity = mapper.toEntity(request);
+        entity.setId(1L);
+    }
+
+    @Benchmark
+    public ContattoResponse toResponse() {
+        return mapper.toResponse(entity);
+    }
+
+    @Benchmark
+    public Contatto toEntity() {
+        return mapper.toEntity(request);
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.rubrica.bench;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+
+import com.example.rubrica.dto.ContattoResponse;
+import com.example.rubrica.model.Contatto;
+import com.example.rubrica.repository.ContattoRepository;
+import com.example.rubrica.search.ContattoQuery;
+import com.example.rubrica.search.MatchMode;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ContattoRepositoryBenchmark {
+
+    @Param({ "10000", "100000", "1000000" })
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private ContattoRepository repo;
+    private Pageable page;
+    private Pageable deepPage;
+    private Contatto middle;
+
+    @Setup
+    public void setup() {
+        context = BenchmarkApplication.start(rows, false, "--rubrica.search.index.enabled=false");
+        repo = context.getBean(ContattoRepository.class);
+        page = PageRequest.of(0, 10, Sort.by("cognome"));
+        deepPage = PageRequest.of((rows / 10) / 2, 10, Sort.by("cognome"));
+        middle = repo.findAll(deepPage).getContent().get(0);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Contatto> findByNome() {
+        return repo.findByNome("Mario");
+    }
+
+    @Benchmark
+    public List<Contatto> findByCognome() {
+        return repo.findByCognome("Rossi");
+    }
+
+    @Benchmark
+    public List<Contatto> findByNomeAndCognome() {
+        return repo.findByNomeAndCognome("Mario", "Rossi");
+    }
+
+    @Benchmark
+    public List<ContattoResponse> findByNomeLike() {
+        return repo.findByNomeLike("ccol");
+    }
+
+    @Benchmark
+    public Page<ContattoResponse> searchNomeContains() {
+        return repo.search(ContattoQuery.builder(MatchMode.CONTAINS).nome("mar").build(), page);
+    }
+
+    @Benchmark
+    public Page<ContattoResponse> searchCognomeContains() {
+        return repo.search(ContattoQuery.builder(MatchMode.CONTAINS).cognome("ross").build(), page);
+    }
+
+    @Benchmark
+    public Page<ContattoResponse> searchNomeCognomePrefix() {
+        return repo.search(ContattoQuery.builder(MatchMode.PREFIX).nome("mar").cognome("ross").build(), page);
+    }
+
+    @Benchmark
+    public Page<Contatto> findAllFirstPage() {
+        return repo.findAll(page);
+    }
+
+    @Benchmark
+    public Page<Contatto> findAllDeepPage() {
+        return repo.findAll(deepPage);
+    }
+
+    @Benchmark
+    public Slice<ContattoResponse> keysetFirstSlice() {
+        return repo.findFirstSlice(null, null, PageRequest.of(0, 10));
+    }
+
+    @Benchmark
+    public Slice<ContattoResponse> keysetDeepSlice() {
+        return repo.findSliceAfter(null, null, middle.getCognome(), middle.getNome(), middle.getId(),
+                PageRequest.of(0, 10));
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.rubrica.bench;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.rubrica.dto.ContattoRequest;
+import com.example.rubrica.dto.ContattoResponse;
+import com.example.rubrica.encoding.ColumnarContattoWriter;
+import com.example.rubrica.seed.SyntheticContattoGenerator;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * Serializzazione di una lista di contatti nei formati negoziabili con {@code Accept}. Il tempo è
+ * quello dei benchmark; le dimensioni, senza e con gzip, vengono stampate nel setup:
+ *
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="Encoding"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EncodingBenchmark {
+
+    @Param({ "100", "10000" })
+    public int size;
+
+    private List<ContattoResponse> contatti;
+    private ObjectMapper json;
+    private ObjectMapper cbor;
+    private ObjectMapper smile;
+    private JsonFactory jsonFactory;
+    private CBORFactory cborFactory;
+
+    @Setup
+    public void setup() {
+        SyntheticContattoGenerator generator = new SyntheticContattoGenerator(42);
+        contatti = new ArrayList<>(size);
+        for (long id = 1; id <= size; id++) {
+            ContattoRequest r = generator.next();
+            contatti.add(new ContattoResponse(id, r.getNome(), r.getCognome(), r.getTelefono(), r.getEmail(), 0L));
+        }
+        json = new ObjectMapper();
+        cbor = new ObjectMapper(new CBORFactory());
+        smile = new ObjectMapper(new SmileFactory());
+        jsonFactory = new JsonFactory();
+        cborFactory = new CBORFactory();
+
+        System.out.printf("%n%d contatti: formato, byte, byte gzip%n", size);
+        print("json", json());
+        print("cbor", cbor());
+        print("smile", smile());
+        print("columnar+json", columnarJson());
+        print("columnar+cbor", columnarCbor());
+    }
+
+    @Benchmark
+    public byte[] json() {
+        return write(json);
+    }
+
+    @Benchmark
+    public byte[] cbor() {
+        return write(cbor);
+    }
+
+    @Benchmark
+    public byte[] smile() {
+        return write(smile);
+    }
+
+    @Benchmark
+    public byte[] columnarJson() {
+        return columnar(jsonFactory);
+    }
+
+    @Benchmark
+    public byte[] columnarCbor() {
+        return columnar(cborFactory);
+    }
+
+    private byte[] write(ObjectMapper mapper) {
+        try {
+            return mapper.writeValueAsBytes(contatti);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private byte[] columnar(JsonFactory factory) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (JsonGenerator gen = factory.createGenerator(out, JsonEncoding.UTF8)) {
+            ColumnarContattoWriter.write(gen, contatti, null);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static void print(String format, byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        System.out.printf("  %-14s %9d %9d%n", format, body.length, out.size());
+    }
+}
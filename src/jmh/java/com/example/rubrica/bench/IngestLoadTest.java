@@ -0,0 +1,136 @@
+package com.example.rubrica.bench;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Carico di sole {@code POST /api/contatti}: inserimento sincrono (una transazione per richiesta)
+ * contro la coda write-behind con group commit ({@code rubrica.ingest.enabled=true}).
+ *
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Dbench.main=com.example.rubrica.bench.IngestLoadTest \
+ *     -Dbench.args="--concurrency 200 --seconds 20"
+ * </pre>
+ */
+public class IngestLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        int concurrency = intArg(args, "--concurrency", 200);
+        int seconds = intArg(args, "--seconds", 20);
+
+        List<String> report = new ArrayList<>();
+        report.add(run("direct", concurrency, seconds));
+        report.add(run("write-behind", concurrency, seconds, "--rubrica.ingest.enabled=true"));
+
+        System.out.printf("%n%-13s %12s %10s %10s %10s %8s %8s%n", "mode", "insert/s", "p50 ms", "p99 ms", "max ms",
+                "429", "errors");
+        report.forEach(System.out::println);
+    }
+
+    private static String run(String mode, int concurrency, int seconds, String... extraArgs) throws Exception {
+        ConfigurableApplicationContext context = BenchmarkApplication.start(0, true, extraArgs);
+        try {
+            int port = context.getEnvironment().getProperty("local.server.port", Integer.class);
+            HttpClient client = HttpClient.newBuilder()
+                    .executor(Executors.newVirtualThreadPerTaskExecutor())
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .build();
+
+            // riscaldamento
+            load(client, port, concurrency, Math.max(3, seconds / 4));
+            Result result = load(client, port, concurrency, seconds);
+            return String.format("%-13s %12.0f %10.2f %10.2f %10.2f %8d %8d", mode, result.throughput(),
+                    result.percentile(0.50), result.percentile(0.99), result.percentile(1.0), result.rejected(),
+                    result.errors());
+        } finally {
+            context.close();
+        }
+    }
+
+    private static Result load(HttpClient client, int port, int concurrency, int seconds) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+        AtomicLong rejected = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+        AtomicLong sequence = new AtomicLong();
+        long[][] latencies = new long[concurrency][];
+        URI uri = URI.create("http://localhost:" + port + "/api/contatti");
+
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int w = 0; w < concurrency; w++) {
+                int worker = w;
+                workers.submit(() -> {
+                    long[] samples = new long[1024];
+                    int count = 0;
+                    while (System.nanoTime() < deadline) {
+                        long n = sequence.incrementAndGet();
+                        String body = """
+                                {"nome":"Carico","cognome":"Test%d","telefono":"333 %07d","email":"carico%d@example.com"}"""
+                                .formatted(n, n % 10_000_000, n);
+                        HttpRequest request = HttpRequest.newBuilder(uri)
+                                .timeout(Duration.ofSeconds(30))
+                                .header("Content-Type", "application/json")
+                                .POST(HttpRequest.BodyPublishers.ofString(body))
+                                .build();
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() == 429) {
+                                rejected.incrementAndGet();
+                                continue;
+                            }
+                            if (response.statusCode() != 201) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                        if (count == samples.length) {
+                            samples = Arrays.copyOf(samples, count * 2);
+                        }
+                        samples[count++] = System.nanoTime() - start;
+                    }
+                    latencies[worker] = Arrays.copyOf(samples, count);
+                    return null;
+                });
+            }
+        }
+
+        long[] all = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+        return new Result(all, seconds, rejected.get(), errors.get());
+    }
+
+    private record Result(long[] sortedNanos, int seconds, long rejected, long errors) {
+
+        double throughput() {
+            return (double) sortedNanos.length / seconds;
+        }
+
+        double percentile(double p) {
+            if (sortedNanos.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.min(sortedNanos.length - 1, Math.ceil(p * sortedNanos.length) - 1);
+            return sortedNanos[Math.max(0, index)] / 1_000_000.0;
+        }
+    }
+
+    private static int intArg(String[] args, String name, int defaultValue) {
+        for (int i = 0; i < args.length - 1; i++) {
+            if (args[i].equals(name)) {
+                return Integer.parseInt(args[i + 1]);
+            }
+        }
+        return defaultValue;
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.rubrica.bench;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import com.example.rubrica.dto.ContattoResponse;
+import com.example.rubrica.mapper.ContattoMapper;
+import com.example.rubrica.repository.ContattoRepository;
+import com.example.rubrica.search.ContattoQuery;
+import com.example.rubrica.search.MatchMode;
+
+/**
+ * Lettura tramite entity + mapper contro proiezione diretta su {@link ContattoResponse}. Va eseguito
+ * con il profiler GC per confrontare i byte allocati per operazione ({@code gc.alloc.rate.norm}):
+ *
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="ReadPath -prof gc"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReadPathBenchmark {
+
+    @Param({ "10000" })
+    public int rows;
+
+    @Param({ "20", "1000" })
+    public int size;
+
+    private ConfigurableApplicationContext context;
+    private ContattoRepository repo;
+    private ContattoMapper mapper;
+    private Pageable page;
+    private ContattoQuery all;
+    private long existingId;
+
+    @Setup
+    public void setup() {
+        context = BenchmarkApplication.start(rows, false, "--rubrica.search.index.enabled=false");
+        repo = context.getBean(ContattoRepository.class);
+        mapper = context.getBean(ContattoMapper.class);
+        page = PageRequest.of(1, size, Sort.by("id"));
+        all = ContattoQuery.builder(MatchMode.EXACT).build();
+        existingId = repo.findFirstSlice(null, null, PageRequest.of(0, 1)).getContent().get(0).getId();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<ContattoResponse> pageEntity() {
+        return repo.findAll(page).map(mapper::toResponse).getContent();
+    }
+
+    @Benchmark
+    public List<ContattoResponse> pageProjection() {
+        return repo.search(all, page).getContent();
+    }
+
+    @Benchmark
+    public Optional<ContattoResponse> byIdEntity() {
+        return repo.findById(existingId).map(mapper::toResponse);
+    }
+
+    @Benchmark
+    public Optional<ContattoResponse> byIdProjection() {
+        return repo.findResponseById(existingId);
+    }
+}
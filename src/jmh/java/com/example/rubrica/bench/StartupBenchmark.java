@@ -0,0 +1,139 @@
+package com.example.rubrica.bench;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tempo dall'avvio del processo alla prima {@code GET /api/contatti} con risposta 200, per le varianti
+ * di avvio disponibili. Ogni variante parte in un processo nuovo, più volte; si riportano mediana,
+ * minimo e massimo. Le varianti AOT/CDS richiedono prima {@code ./mvnw -Pfast-startup package}.
+ *
+ * <pre>
+ * ./mvnw -Pbenchmark test-compile exec:exec -Dbench.main=com.example.rubrica.bench.StartupBenchmark \
+ *     -Dbench.args="--runs 5"
+ * </pre>
+ */
+public class StartupBenchmark {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(120);
+
+    public static void main(String[] args) throws Exception {
+        int runs = intArg(args, "--runs", 5);
+        Path target = Path.of(stringArg(args, "--target", "target"));
+        Path jar;
+        try (var files = Files.list(target)) {
+            jar = files.filter(p -> p.getFileName().toString().matches("rubrica-.*\\.jar")).findFirst()
+                    .orElseThrow(() -> new IllegalStateException("Jar non trovato in " + target + ": ./mvnw package"));
+        }
+        Path extracted = target.resolve("application");
+        Path extractedJar = extracted.resolve(jar.getFileName());
+        Path archive = extracted.resolve("application.jsa");
+
+        List<Variant> variants = new ArrayList<>();
+        variants.add(new Variant("jar", null, List.of("-jar", jar.toString())));
+        variants.add(new Variant("jar fast-startup", null,
+                List.of("-jar", jar.toString(), "--spring.profiles.active=fast-startup")));
+        if (Files.exists(archive)) {
+            variants.add(new Variant("extracted fast-startup", extracted,
+                    List.of("-jar", extractedJar.getFileName().toString(), "--spring.profiles.active=fast-startup")));
+            variants.add(new Variant("extracted + AOT", extracted,
+                    List.of("-Dspring.aot.enabled=true", "-jar", extractedJar.getFileName().toString(),
+                            "--spring.profiles.active=fast-startup")));
+            variants.add(new Variant("extracted + AOT + CDS", extracted,
+                    List.of("-XX:SharedArchiveFile=application.jsa", "-Xlog:cds=error", "-Dspring.aot.enabled=true",
+                            "-jar", extractedJar.getFileName().toString(), "--spring.profiles.active=fast-startup")));
+        } else {
+            System.out.println("Varianti AOT/CDS saltate: manca " + archive + " (./mvnw -Pfast-startup package)");
+        }
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(200)).build();
+        List<String> report = new ArrayList<>();
+        for (Variant variant : variants) {
+            long[] samples = new long[runs];
+            for (int i = 0; i < runs; i++) {
+                samples[i] = timeToFirstRequest(client, variant);
+            }
+            Arrays.sort(samples);
+            report.add(String.format("%-24s %10d %10d %10d", variant.name(), samples[runs / 2], samples[0],
+                    samples[runs - 1]));
+        }
+
+        System.out.printf("%n%-24s %10s %10s %10s%n", "variante", "p50 ms", "min ms", "max ms");
+        report.forEach(System.out::println);
+    }
+
+    private static long timeToFirstRequest(HttpClient client, Variant variant) throws Exception {
+        int port = freePort();
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(variant.args());
+        command.add("--server.port=" + port);
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/contatti"))
+                .timeout(Duration.ofSeconds(5))
+                .build();
+
+        ProcessBuilder builder = new ProcessBuilder(command).redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD);
+        if (variant.directory() != null) {
+            builder.directory(variant.directory().toFile());
+        }
+        long start = System.nanoTime();
+        Process process = builder.start();
+        try {
+            while (System.nanoTime() - start < TIMEOUT.toNanos()) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException(variant.name() + ": processo terminato con codice "
+                            + process.exitValue() + " (" + String.join(" ", command) + ")");
+                }
+                try {
+                    if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        return (System.nanoTime() - start) / 1_000_000;
+                    }
+                } catch (IOException e) {
+                    // server non ancora in ascolto
+                }
+                Thread.sleep(10);
+            }
+            throw new IllegalStateException(variant.name() + ": nessuna risposta entro " + TIMEOUT);
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static int intArg(String[] args, String name, int defaultValue) {
+        String value = stringArg(args, name, null);
+        return value != null ? Integer.parseInt(value) : defaultValue;
+    }
+
+    private static String stringArg(String[] args, String name, String defaultValue) {
+        for (int i = 0; i < args.length - 1; i++) {
+            if (args[i].equals(name)) {
+                return args[i + 1];
+            }
+        }
+        return defaultValue;
+    }
+
+    private record Variant(String name, Path directory, List<String> args) {
+    }
+}
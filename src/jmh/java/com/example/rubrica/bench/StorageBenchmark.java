@@ -0,0 +1,145 @@
+package com.example.rubrica.bench;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Stream;
+
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Confronta il profilo {@code persistent} (H2 su file, Flyway, cache precaricata) con il database
+ * in memoria: tempo di avvio fino alla prima richiesta servibile e latenze p50/p99 delle query.
+ * <p>
+ * In memoria ogni avvio deve ricaricare i dati ({@code rubrica.seed.rows}); con il profilo
+ * persistent si misura il riavvio su un database già popolato. L'indice di ricerca in memoria è
+ * disattivato così le query arrivano al database.
+ *
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Dbench.main=com.example.rubrica.bench.StorageBenchmark \
+ *     -Dbench.args="--rows 100000 --seconds 10"
+ * </pre>
+ */
+public class StorageBenchmark {
+
+    private static final String[] PATHS = {
+            "/api/contatti/%d",
+            "/api/contatti/search?cognome=Rossi",
+            "/api/contatti/search?nome=Giulia",
+            "/api/contatti/scroll?size=20&cognome=ro",
+            "/api/contatti/searchsort?page=5&size=20&sort=id",
+    };
+
+    public static void main(String[] args) throws Exception {
+        int rows = intArg(args, "--rows", 100_000);
+        int seconds = intArg(args, "--seconds", 10);
+
+        List<String> report = new ArrayList<>();
+        Path dataDir = Files.createTempDirectory("rubrica-bench");
+        try {
+            String[] persistent = {
+                    "--spring.profiles.active=persistent",
+                    "--spring.datasource.url=jdbc:h2:file:" + dataDir.resolve("rubricadb")
+                            + ";DB_CLOSE_ON_EXIT=FALSE;CACHE_SIZE=65536" };
+            // primo avvio: migrazioni e caricamento dei dati, non misurato (scalda anche la JVM)
+            BenchmarkApplication.start(rows, false, persistent).close();
+            report.addAll(run("memory", rows, seconds, rows));
+            report.addAll(run("persistent", rows, seconds, 0, persistent));
+        } finally {
+            try (Stream<Path> files = Files.walk(dataDir)) {
+                files.sorted(Comparator.reverseOrder()).forEach(StorageBenchmark::delete);
+            }
+        }
+
+        System.out.printf("%n%-11s %-50s %10s %10s %10s%n", "mode", "query", "p50 ms", "p99 ms", "req/s");
+        report.forEach(System.out::println);
+    }
+
+    private static List<String> run(String mode, int rows, int seconds, int seedRows, String... extraArgs)
+            throws Exception {
+        List<String> report = new ArrayList<>();
+        String[] args = Arrays.copyOf(extraArgs, extraArgs.length + 1);
+        args[extraArgs.length] = "--rubrica.search.index.enabled=false";
+
+        long start = System.nanoTime();
+        ConfigurableApplicationContext context = BenchmarkApplication.start(seedRows, true, args);
+        try {
+            int port = context.getEnvironment().getProperty("local.server.port", Integer.class);
+            HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+            send(client, port, "/api/contatti/1");
+            double startup = (System.nanoTime() - start) / 1_000_000.0;
+            report.add(String.format("%-11s %-50s %10.0f %10s %10s", mode, "avvio fino alla prima risposta", startup,
+                    "", ""));
+
+            for (String path : PATHS) {
+                measure(client, port, path, rows, Math.max(1, seconds / 4));
+                long[] samples = measure(client, port, path, rows, seconds);
+                report.add(String.format("%-11s %-50s %10.3f %10.3f %10.0f", mode, path, percentile(samples, 0.50),
+                        percentile(samples, 0.99), (double) samples.length / seconds));
+            }
+        } finally {
+            context.close();
+        }
+        return report;
+    }
+
+    private static long[] measure(HttpClient client, int port, String path, int rows, int seconds) throws Exception {
+        long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+        long[] samples = new long[1024];
+        int count = 0;
+        while (System.nanoTime() < deadline) {
+            long begin = System.nanoTime();
+            send(client, port, path.formatted(ThreadLocalRandom.current().nextLong(1, rows + 1)));
+            if (count == samples.length) {
+                samples = Arrays.copyOf(samples, count * 2);
+            }
+            samples[count++] = System.nanoTime() - begin;
+        }
+        long[] result = Arrays.copyOf(samples, count);
+        Arrays.sort(result);
+        return result;
+    }
+
+    private static void send(HttpClient client, int port, String path) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).build();
+        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() >= 500) {
+            throw new IllegalStateException(path + " -> " + response.statusCode());
+        }
+    }
+
+    private static double percentile(long[] sortedNanos, double p) {
+        if (sortedNanos.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.min(sortedNanos.length - 1, Math.ceil(p * sortedNanos.length) - 1);
+        return sortedNanos[Math.max(0, index)] / 1_000_000.0;
+    }
+
+    private static void delete(Path path) {
+        try {
+            Files.delete(path);
+        } catch (IOException e) {
+            // file temporaneo, non bloccante
+        }
+    }
+
+    private static int intArg(String[] args, String name, int defaultValue) {
+        for (int i = 0; i < args.length - 1; i++) {
+            if (args[i].equals(name)) {
+                return Integer.parseInt(args[i + 1]);
+            }
+        }
+        return defaultValue;
+    }
+}
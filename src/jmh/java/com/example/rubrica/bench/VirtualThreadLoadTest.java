@@ -0,0 +1,135 @@
+package com.example.rubrica.bench;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Scenario di carico che confronta throughput e latenze (p50/p99) degli endpoint
+ * {@code /api/contatti} tra thread di piattaforma e profilo {@code virtual}.
+ *
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Dbench.main=com.example.rubrica.bench.VirtualThreadLoadTest \
+ *     -Dbench.args="--rows 100000 --concurrency 400 --seconds 20"
+ * </pre>
+ */
+public class VirtualThreadLoadTest {
+
+    private static final String[] PATHS = {
+            "/api/contatti/%d",
+            "/api/contatti/search?cognome=Rossi&nome=Mario",
+            "/api/contatti/scroll?size=20&cognome=ro",
+            "/api/contatti/searchsort?page=5&size=20&sort=id",
+    };
+
+    public static void main(String[] args) throws Exception {
+        int rows = intArg(args, "--rows", 100_000);
+        int concurrency = intArg(args, "--concurrency", 400);
+        int seconds = intArg(args, "--seconds", 20);
+
+        List<String> report = new ArrayList<>();
+        report.add(run("platform", rows, concurrency, seconds));
+        report.add(run("virtual", rows, concurrency, seconds, "--spring.profiles.active=virtual"));
+
+        System.out.printf("%n%-10s %12s %10s %10s %10s %8s%n", "mode", "req/s", "p50 ms", "p99 ms", "max ms",
+                "errors");
+        report.forEach(System.out::println);
+    }
+
+    private static String run(String mode, int rows, int concurrency, int seconds, String... extraArgs)
+            throws Exception {
+        ConfigurableApplicationContext context = BenchmarkApplication.start(rows, true, extraArgs);
+        try {
+            int port = context.getEnvironment().getProperty("local.server.port", Integer.class);
+            HttpClient client = HttpClient.newBuilder()
+                    .executor(Executors.newVirtualThreadPerTaskExecutor())
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .build();
+
+            // riscaldamento
+            load(client, port, concurrency, Math.max(3, seconds / 4), rows);
+            Result result = load(client, port, concurrency, seconds, rows);
+            return String.format("%-10s %12.0f %10.2f %10.2f %10.2f %8d", mode, result.throughput(),
+                    result.percentile(0.50), result.percentile(0.99), result.percentile(1.0), result.errors());
+        } finally {
+            context.close();
+        }
+    }
+
+    private static Result load(HttpClient client, int port, int concurrency, int seconds, int rows)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+        AtomicLong errors = new AtomicLong();
+        long[][] latencies = new long[concurrency][];
+
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int w = 0; w < concurrency; w++) {
+                int worker = w;
+                workers.submit(() -> {
+                    long[] samples = new long[1024];
+                    int count = 0;
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (System.nanoTime() < deadline) {
+                        String path = PATHS[random.nextInt(PATHS.length)].formatted(random.nextLong(1, rows + 1));
+                        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                                .timeout(Duration.ofSeconds(30))
+                                .build();
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() >= 500) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                        if (count == samples.length) {
+                            samples = Arrays.copyOf(samples, count * 2);
+                        }
+                        samples[count++] = System.nanoTime() - start;
+                    }
+                    latencies[worker] = Arrays.copyOf(samples, count);
+                    return null;
+                });
+            }
+        }
+
+        long[] all = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+        return new Result(all, seconds, errors.get());
+    }
+
+    private record Result(long[] sortedNanos, int seconds, long errors) {
+
+        double throughput() {
+            return (double) sortedNanos.length / seconds;
+        }
+
+        double percentile(double p) {
+            if (sortedNanos.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.min(sortedNanos.length - 1, Math.ceil(p * sortedNanos.length) - 1);
+            return sortedNanos[Math.max(0, index)] / 1_000_000.0;
+        }
+    }
+
+    private static int intArg(String[] args, String name, int defaultValue) {
+        for (int i = 0; i < args.length - 1; i++) {
+            if (args[i].equals(name)) {
+                return Integer.parseInt(args[i + 1]);
+            }
+        }
+        return defaultValue;
+    }
+}
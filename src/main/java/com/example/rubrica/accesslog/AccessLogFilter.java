@@ -0,0 +1,182 @@
+package com.example.rubrica.accesslog;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingRequestWrapper;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.WebUtils;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Access log strutturato delle API: una riga per richiesta sul logger {@code rubrica.access},
+ * campionata per endpoint. Gli errori 5xx vengono sempre registrati. I body di richiesta e
+ * risposta sono catturati solo per le richieste in debug (header o campionamento dedicato).
+ * <p>
+ * Per le richieste asincrone ({@code CompletableFuture}, streaming, SSE) la riga viene scritta al
+ * termine dell'ultimo dispatch, con lo stato e la durata finali. I body delle risposte segnate con
+ * {@link #markStreaming} non vengono trattenuti: passano subito al client e il log riporta solo
+ * {@code (streaming)}.
+ */
+public class AccessLogFilter extends OncePerRequestFilter {
+
+    public static final String DEBUG_HEADER = "X-Debug-Log";
+
+    private static final Logger log = LoggerFactory.getLogger("rubrica.access");
+
+    private static final String START_ATTRIBUTE = AccessLogFilter.class.getName() + ".START";
+    private static final String DEBUG_ATTRIBUTE = AccessLogFilter.class.getName() + ".DEBUG";
+    private static final String STREAMING_ATTRIBUTE = AccessLogFilter.class.getName() + ".STREAMING";
+
+    private final AccessLogProperties properties;
+
+    public AccessLogFilter(AccessLogProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Segna la risposta come streaming ({@code StreamingResponseBody}, SSE): il controller la chiama prima
+     * di restituire il corpo, che in debug passa così direttamente al client invece di essere trattenuto.
+     */
+    public static void markStreaming(ServletRequest request) {
+        request.setAttribute(STREAMING_ATTRIBUTE, Boolean.TRUE);
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!properties.isEnabled() || !log.isInfoEnabled()) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        HttpServletRequest requestToUse = request;
+        HttpServletResponse responseToUse = response;
+        if (!isAsyncDispatch(request)) {
+            request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+            if (isDebug(request)) {
+                // il dispatch asincrono può ricevere la richiesta originale: il wrapper resta negli attributi
+                ContentCachingRequestWrapper requestWrapper = new ContentCachingRequestWrapper(request,
+                        properties.getMaxBodyLength());
+                request.setAttribute(DEBUG_ATTRIBUTE, requestWrapper);
+                requestToUse = requestWrapper;
+                responseToUse = new DebugResponseWrapper(response, request);
+            }
+        }
+
+        boolean failed = true;
+        try {
+            chain.doFilter(requestToUse, responseToUse);
+            failed = false;
+        } finally {
+            // con l'elaborazione asincrona avviata la risposta non esiste ancora: se ne occupa l'ultimo dispatch
+            if (failed || !isAsyncStarted(requestToUse)) {
+                complete(requestToUse, responseToUse, failed);
+            }
+        }
+    }
+
+    private void complete(HttpServletRequest request, HttpServletResponse response, boolean failed)
+            throws IOException {
+        // un'eccezione che esce dalla catena diventa un 500 dopo questo filtro
+        int status = failed ? HttpServletResponse.SC_INTERNAL_SERVER_ERROR : response.getStatus();
+        Object started = request.getAttribute(START_ATTRIBUTE);
+        long start = started instanceof Long nanos ? nanos : System.nanoTime();
+        DebugResponseWrapper responseWrapper = WebUtils.getNativeResponse(response, DebugResponseWrapper.class);
+        if (!(request.getAttribute(DEBUG_ATTRIBUTE) instanceof ContentCachingRequestWrapper requestWrapper)
+                || responseWrapper == null) {
+            logRequest(request, status, start);
+            return;
+        }
+
+        try {
+            log.info("method={} uri={} path={} status={} durationUs={} debug=true requestBody={} responseBody={}",
+                    request.getMethod(), pattern(request), request.getRequestURI(), status,
+                    (System.nanoTime() - start) / 1000,
+                    body(requestWrapper.getContentAsByteArray()),
+                    responseWrapper.isStreaming() ? "(streaming)" : body(responseWrapper.getContentAsByteArray()));
+        } finally {
+            responseWrapper.copyBodyToResponse();
+        }
+    }
+
+    private void logRequest(HttpServletRequest request, int status, long start) {
+        String pattern = pattern(request);
+        if (status < 500 && !sampled(properties.getEndpoints().getOrDefault(pattern, properties.getSampleRate()))) {
+            return;
+        }
+        log.info("method={} uri={} path={} status={} durationUs={}", request.getMethod(), pattern,
+                request.getRequestURI(), status, (System.nanoTime() - start) / 1000);
+    }
+
+    private boolean isDebug(HttpServletRequest request) {
+        return (properties.isDebugHeaderEnabled() && "true".equalsIgnoreCase(request.getHeader(DEBUG_HEADER)))
+                || sampled(properties.getDebugSampleRate());
+    }
+
+    private static boolean sampled(double rate) {
+        return rate >= 1.0 || (rate > 0.0 && ThreadLocalRandom.current().nextDouble() < rate);
+    }
+
+    private static String pattern(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern == null ? request.getRequestURI() : pattern.toString();
+    }
+
+    private String body(byte[] content) {
+        int length = Math.min(content.length, properties.getMaxBodyLength());
+        String body = new String(content, 0, length, StandardCharsets.UTF_8);
+        return content.length > length ? body + "...(" + content.length + " byte)" : body;
+    }
+
+    /** Trattiene il body per il log, salvo per le risposte in streaming, che scrive subito. */
+    private static final class DebugResponseWrapper extends ContentCachingResponseWrapper {
+
+        private final HttpServletRequest request;
+
+        DebugResponseWrapper(HttpServletResponse response, HttpServletRequest request) {
+            super(response);
+            this.request = request;
+        }
+
+        boolean isStreaming() {
+            return request.getAttribute(STREAMING_ATTRIBUTE) != null;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            return isStreaming() ? getResponse().getOutputStream() : super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            return isStreaming() ? getResponse().getWriter() : super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (isStreaming()) {
+                getResponse().flushBuffer();
+            } else {
+                super.flushBuffer();
+            }
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.rubrica.accesslog;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties("rubrica.access-log")
+public class AccessLogProperties {
+
+    private boolean enabled = true;
+
+    /** Frazione di richieste registrate (0..1) per gli endpoint senza una regola specifica. */
+    private double sampleRate = 1.0;
+
+    /** Frazione per endpoint, con chiave il pattern del mapping (es. {@code /api/contatti/{id}}). */
+    private Map<String, Double> endpoints = new LinkedHashMap<>();
+
+    /**
+     * Abilita il log dei body per le richieste con l'header {@link AccessLogFilter#DEBUG_HEADER}. Spento di
+     * default: chiunque potrebbe far finire nel log i dati dei contatti.
+     */
+    private boolean debugHeaderEnabled = false;
+
+    /** Frazione di richieste con log dei body anche senza header. */
+    private double debugSampleRate = 0.0;
+
+    private int maxBodyLength = 4096;
+}
@@ -0,0 +1,212 @@
+package com.example.rubrica.bulk;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import com.example.rubrica.dto.BulkImportReport;
+import com.example.rubrica.dto.ContattoRequest;
+import com.example.rubrica.mapper.ContattoMapper;
+import com.example.rubrica.model.Contatto;
+import com.example.rubrica.service.ContattoService;
+import com.example.rubrica.tenant.TenantQuotaExceededException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+/**
+ * Importazione massiva da CSV o NDJSON. Le righe vengono lette in streaming, validate con i
+ * vincoli di {@link ContattoRequest} e inserite a blocchi di {@code rubrica.import.batch-size},
+ * ognuno nella propria transazione.
+ */
+@Service
+public class ContattoBulkImporter {
+
+    private static final Logger log = LoggerFactory.getLogger(ContattoBulkImporter.class);
+
+    private final ContattoService service;
+    private final ContattoMapper mapper;
+    private final Validator validator;
+    private final ObjectReader requestReader;
+    private final int batchSize;
+    private final int maxErrors;
+
+    public ContattoBulkImporter(ContattoService service, ContattoMapper mapper, Validator validator,
+            ObjectMapper objectMapper,
+            @Value("${rubrica.import.batch-size:500}") int batchSize,
+            @Value("${rubrica.import.max-errors:1000}") int maxErrors) {
+        this.service = service;
+        this.mapper = mapper;
+        this.validator = validator;
+        // una riga con due oggetti non deve perderne uno in silenzio
+        this.requestReader = objectMapper.readerFor(ContattoRequest.class)
+                .with(DeserializationFeature.FAIL_ON_TRAILING_TOKENS);
+        this.batchSize = batchSize;
+        this.maxErrors = maxErrors;
+    }
+
+    public BulkImportReport importCsv(InputStream in) throws IOException {
+        Run run = new Run();
+        CsvReader reader = new CsvReader(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)));
+
+        List<String> header = reader.readRecord();
+        if (header == null) {
+            return run.finish();
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            String name = header.get(i);
+            // Excel salva il CSV in UTF-8 con il BOM, che InputStreamReader lascia in testa al primo campo
+            if (i == 0 && name.startsWith("\uFEFF")) {
+                name = name.substring(1);
+            }
+            columns.put(name.trim().toLowerCase(Locale.ROOT), i);
+        }
+        if (!columns.keySet().containsAll(Set.of("nome", "cognome", "telefono", "email"))) {
+            throw new IllegalArgumentException("Intestazione CSV non valida, attese le colonne nome,cognome,telefono,email");
+        }
+
+        long row = 0;
+        List<String> record;
+        while ((record = reader.readRecord()) != null) {
+            row++;
+            if (record.size() == 1 && record.get(0).isBlank()) {
+                continue;
+            }
+            ContattoRequest request = new ContattoRequest();
+            request.setNome(column(record, columns.get("nome")));
+            request.setCognome(column(record, columns.get("cognome")));
+            request.setTelefono(column(record, columns.get("telefono")));
+            request.setEmail(column(record, columns.get("email")));
+            run.accept(row, request);
+        }
+        return run.finish();
+    }
+
+    public BulkImportReport importNdjson(InputStream in) throws IOException {
+        Run run = new Run();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+
+        long row = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            row++;
+            if (line.isBlank()) {
+                continue;
+            }
+            ContattoRequest request;
+            try {
+                request = requestReader.readValue(line);
+            } catch (JsonProcessingException e) {
+                run.reject(row, List.of("JSON non valido: " + e.getOriginalMessage()));
+                continue;
+            }
+            if (request == null) {
+                // "null" è JSON valido ma non un contatto: il validator rifiuterebbe l'intero import
+                run.reject(row, List.of("JSON non valido: atteso un oggetto, trovato null"));
+                continue;
+            }
+            run.accept(row, request);
+        }
+        return run.finish();
+    }
+
+    private static String column(List<String> record, int index) {
+        if (index >= record.size()) {
+            return null;
+        }
+        String value = record.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private class Run {
+
+        private final long start = System.nanoTime();
+        private final List<Contatto> batch = new ArrayList<>(batchSize);
+        private final List<Long> batchRows = new ArrayList<>(batchSize);
+        private final List<BulkImportReport.RowError> errors = new ArrayList<>();
+        private long total;
+        private long imported;
+        private long rejected;
+
+        void accept(long row, ContattoRequest request) {
+            total++;
+            Set<ConstraintViolation<ContattoRequest>> violations = validator.validate(request);
+            if (!violations.isEmpty()) {
+                rejectRow(row, violations.stream()
+                        .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                        .sorted()
+                        .toList());
+                return;
+            }
+            batch.add(mapper.toEntity(request));
+            batchRows.add(row);
+            if (batch.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void reject(long row, List<String> messages) {
+            total++;
+            rejectRow(row, messages);
+        }
+
+        private void rejectRow(long row, List<String> messages) {
+            rejected++;
+            if (errors.size() < maxErrors) {
+                errors.add(new BulkImportReport.RowError(row, messages));
+            }
+        }
+
+        private void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                service.insertAll(batch);
+                imported += batch.size();
+            } catch (DataAccessException e) {
+                log.error("Errore durante l'inserimento del blocco di righe {}-{}: {}", batchRows.get(0),
+                        batchRows.get(batchRows.size() - 1), e.getMessage(), e);
+                List<String> messages = List.of("errore database: " + e.getMostSpecificCause().getMessage());
+                batchRows.forEach(row -> rejectRow(row, messages));
+            } catch (TenantQuotaExceededException e) {
+                log.warn("Blocco di righe {}-{} scartato: {}", batchRows.get(0), batchRows.get(batchRows.size() - 1),
+                        e.getMessage());
+                List<String> messages = List.of(e.getMessage());
+                batchRows.forEach(row -> rejectRow(row, messages));
+            }
+            batch.clear();
+            batchRows.clear();
+        }
+
+        BulkImportReport finish() {
+            flush();
+            long elapsedNanos = System.nanoTime() - start;
+            double seconds = elapsedNanos / 1_000_000_000.0;
+            double rowsPerSecond = seconds > 0 ? imported / seconds : 0;
+            log.info("Import completato: {} righe, {} importate, {} scartate in {} ms ({} righe/s)", total, imported,
+                    rejected, elapsedNanos / 1_000_000, Math.round(rowsPerSecond));
+            return new BulkImportReport(total, imported, rejected, elapsedNanos / 1_000_000, rowsPerSecond,
+                    List.copyOf(errors), rejected > errors.size());
+        }
+    }
+}
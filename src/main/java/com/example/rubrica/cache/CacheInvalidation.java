@@ -0,0 +1,7 @@
+package com.example.rubrica.cache;
+
+import java.util.List;
+
+/** Blocco di chiavi da togliere dalla cache, pubblicato dal nodo {@code origin}. */
+public record CacheInvalidation(String origin, List<ContattoCache.Key> keys) {
+}
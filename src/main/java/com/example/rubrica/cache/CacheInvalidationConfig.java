@@ -0,0 +1,35 @@
+package com.example.rubrica.cache;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.example.rubrica.routing.ReplicaRoutingDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Invalidazione della cache tra i nodi, con {@code rubrica.cache.invalidation.enabled=true}. Senza un
+ * {@link InvalidationBus} dichiarato altrove si usa quello in memoria.
+ */
+@Configuration
+@ConditionalOnProperty(name = "rubrica.cache.invalidation.enabled", havingValue = "true")
+@EnableConfigurationProperties(InvalidationProperties.class)
+public class CacheInvalidationConfig {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public InvalidationBus invalidationBus() {
+        return new LoopbackInvalidationBus();
+    }
+
+    @Bean
+    public ContattoCacheInvalidator contattoCacheInvalidator(ContattoCache cache, ContattoRevisions revisions,
+            InvalidationBus bus, InvalidationProperties properties, ObjectProvider<ReplicaRoutingDataSource> routing,
+            MeterRegistry registry) {
+        return new ContattoCacheInvalidator(cache, revisions, bus, properties, routing.getIfAvailable(), registry);
+    }
+}
@@ -0,0 +1,187 @@
+package com.example.rubrica.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.rubrica.dto.ContattoResponse;
+import com.example.rubrica.service.event.ContattoEvent;
+import com.example.rubrica.tenant.TenantContext;
+import com.github.benmanes.caffeine.cache.Cache;
+
+/**
+ * Cache write-through dei contatti per tenant e id. Contiene solo {@link ContattoResponse} immutabili;
+ * gli id inesistenti finiscono in una cache separata con TTL più breve. Le letture usano il tenant di
+ * {@link TenantContext}, gli aggiornamenti quello dell'evento. Le modifiche fatte da altri nodi arrivano
+ * come invalidazioni da {@link ContattoCacheInvalidator}.
+ * <p>
+ * Gli eventi dopo il commit e i caricamenti dal database possono arrivare in qualunque ordine: un
+ * valore entra solo se la sua {@code version} non è più vecchia di quella in cache, e un id cancellato
+ * resta marcato come tale (gli id non vengono riusati) finché la marcatura non scade, così né un
+ * caricamento iniziato prima della cancellazione né un aggiornamento in ritardo lo rimettono in cache.
+ */
+@Component
+public class ContattoCache {
+
+    public static final String CONTATTI = "contatti";
+    public static final String CONTATTI_MANCANTI = "contatti-mancanti";
+
+    /** Valori della cache dei mancanti: cercato e non trovato, oppure cancellato. */
+    private enum Mancante {
+        NON_TROVATO, CANCELLATO
+    }
+
+    private final Cache<Object, Object> contatti;
+    private final Cache<Object, Object> mancanti;
+    /** Invalidazioni remote ricevute: un caricamento iniziato prima di una di esse non va messo in cache. */
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public ContattoCache(CacheManager cacheManager) {
+        this.contatti = nativeCache(cacheManager, CONTATTI);
+        this.mancanti = nativeCache(cacheManager, CONTATTI_MANCANTI);
+    }
+
+    /** La cache Caffeine sotto quella di Spring: serve {@code asMap().compute} per gli aggiornamenti atomici. */
+    @SuppressWarnings("unchecked")
+    private static Cache<Object, Object> nativeCache(CacheManager cacheManager, String name) {
+        return (Cache<Object, Object>) cacheManager.getCache(name).getNativeCache();
+    }
+
+    public Optional<ContattoResponse> get(Long id, Function<Long, Optional<ContattoResponse>> loader) {
+        Key key = new Key(TenantContext.current(), id);
+        if (contatti.getIfPresent(key) instanceof ContattoResponse cached) {
+            return Optional.of(cached);
+        }
+        if (mancanti.getIfPresent(key) != null) {
+            return Optional.empty();
+        }
+
+        long generation = invalidations.get();
+        Optional<ContattoResponse> loaded = loader.apply(id);
+        if (generation != invalidations.get()) {
+            return loaded;
+        }
+        loaded.ifPresentOrElse(c -> merge(key, c), () -> notFound(key));
+        return loaded;
+    }
+
+    /**
+     * Come {@link #get}, ma gli id assenti dalla cache vengono caricati tutti con una sola chiamata
+     * al loader. Gli id noti come inesistenti non compaiono nel risultato.
+     */
+    public Map<Long, ContattoResponse> getAll(Collection<Long> ids,
+            Function<Collection<Long>, Map<Long, ContattoResponse>> loader) {
+        String tenant = TenantContext.current();
+        Map<Long, ContattoResponse> result = new HashMap<>();
+        List<Long> misses = new ArrayList<>();
+        for (Long id : ids) {
+            Key key = new Key(tenant, id);
+            if (contatti.getIfPresent(key) instanceof ContattoResponse cached) {
+                result.put(id, cached);
+            } else if (mancanti.getIfPresent(key) == null) {
+                misses.add(id);
+            }
+        }
+        if (misses.isEmpty()) {
+            return result;
+        }
+
+        long generation = invalidations.get();
+        Map<Long, ContattoResponse> loaded = loader.apply(misses);
+        boolean cacheable = generation == invalidations.get();
+        for (Long id : misses) {
+            Key key = new Key(tenant, id);
+            ContattoResponse c = loaded.get(id);
+            if (c != null) {
+                result.put(id, c);
+            }
+            if (!cacheable) {
+                continue;
+            }
+            if (c != null) {
+                merge(key, c);
+            } else {
+                notFound(key);
+            }
+        }
+        return result;
+    }
+
+    public void put(String tenant, ContattoResponse contatto) {
+        Key key = new Key(tenant, contatto.getId());
+        merge(key, contatto);
+        mancanti.asMap().remove(key, Mancante.NON_TROVATO);
+    }
+
+    /** Come {@link #put}, ma senza sovrascrivere un valore già in cache. */
+    public void putIfAbsent(String tenant, ContattoResponse contatto) {
+        Key key = new Key(tenant, contatto.getId());
+        contatti.asMap().compute(key, (k, current) -> current != null || deleted(k) ? current : contatto);
+    }
+
+    public void evict(String tenant, Long id) {
+        Key key = new Key(tenant, id);
+        // prima la marcatura, poi la rimozione: un merge concorrente vede l'una o trova l'altra già fatta
+        mancanti.put(key, Mancante.CANCELLATO);
+        contatti.invalidate(key);
+    }
+
+    /**
+     * Modifica avvenuta su un altro nodo: la chiave esce da entrambe le cache e la prossima lettura va
+     * al database. Non si marca come mancante, il contatto potrebbe essere stato solo aggiornato.
+     */
+    void invalidate(Key key) {
+        invalidations.incrementAndGet();
+        contatti.invalidate(key);
+        mancanti.invalidate(key);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onContattoEvent(ContattoEvent event) {
+        if (event.type() == ContattoEvent.Type.DELETED) {
+            evict(event.tenantId(), event.id());
+        } else {
+            put(event.tenantId(), event.contatto());
+        }
+    }
+
+    /** Mette {@code contatto} in cache se non è cancellato e non è più vecchio del valore presente. */
+    private void merge(Key key, ContattoResponse contatto) {
+        contatti.asMap().compute(key, (k, current) -> deleted(k) ? current : newer(current, contatto));
+    }
+
+    private void notFound(Key key) {
+        // un inserimento committato durante il caricamento ha già messo il contatto in cache
+        if (!contatti.asMap().containsKey(key)) {
+            mancanti.asMap().putIfAbsent(key, Mancante.NON_TROVATO);
+        }
+    }
+
+    private boolean deleted(Object key) {
+        return mancanti.asMap().get(key) == Mancante.CANCELLATO;
+    }
+
+    private static Object newer(Object current, ContattoResponse candidate) {
+        if (current instanceof ContattoResponse cached && version(cached) > version(candidate)) {
+            return cached;
+        }
+        return candidate;
+    }
+
+    private static long version(ContattoResponse contatto) {
+        return contatto.getVersion() == null ? -1 : contatto.getVersion();
+    }
+
+    /** Chiave delle due cache: lo stesso id letto da un altro tenant è un'altra voce. */
+    public record Key(String tenant, Long id) {
+    }
+}
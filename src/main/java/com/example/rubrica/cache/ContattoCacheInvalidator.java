@@ -0,0 +1,168 @@
+package com.example.rubrica.cache;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.rubrica.routing.ReplicaRoutingDataSource;
+import com.example.rubrica.service.event.ContattoEvent;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Secondo livello della cache dei contatti: la cache Caffeine di ogni nodo resta la near-cache, e le
+ * scritture committate qui vengono annunciate agli altri nodi tramite {@link InvalidationBus}.
+ * <p>
+ * Le chiavi non partono una per volta: si accumulano per al più {@code linger} (o fino a
+ * {@code max-batch-size}) e le ripetute si fondono, così una raffica di modifiche sugli stessi
+ * contatti diventa un solo messaggio. Chi riceve toglie le chiavi dalla cache, senza ricaricarle, e
+ * fa avanzare la revisione del tenant, altrimenti i 304 delle liste nasconderebbero la modifica. Con
+ * il routing sulle repliche apre anche la finestra read-your-writes del tenant: la scrittura remota può
+ * non essere ancora arrivata alle repliche, e la prima lettura dopo l'invalidazione rimetterebbe in
+ * cache il valore vecchio per tutto il TTL.
+ */
+public class ContattoCacheInvalidator {
+
+    private static final Logger log = LoggerFactory.getLogger(ContattoCacheInvalidator.class);
+
+    private final ContattoCache cache;
+    private final ContattoRevisions revisions;
+    private final InvalidationBus bus;
+    private final InvalidationProperties properties;
+    /** {@code null} senza routing sulle repliche. */
+    private final ReplicaRoutingDataSource routing;
+
+    /** Chiavi in attesa di pubblicazione, protette da {@code lock}; l'ordine non conta, i doppioni sì. */
+    private Set<ContattoCache.Key> pending = new LinkedHashSet<>();
+    /** Impostato da {@link #stop}, protetto da {@code lock}. */
+    private boolean stopped;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("rubrica-cache-invalidation").daemon().factory());
+
+    private final Counter published;
+    private final Counter coalesced;
+    private final DistributionSummary batchSizes;
+    private final Counter received;
+
+    public ContattoCacheInvalidator(ContattoCache cache, ContattoRevisions revisions, InvalidationBus bus,
+            InvalidationProperties properties, ReplicaRoutingDataSource routing, MeterRegistry registry) {
+        this.cache = cache;
+        this.revisions = revisions;
+        this.bus = bus;
+        this.properties = properties;
+        this.routing = routing;
+        this.published = Counter.builder("rubrica.cache.invalidation.published")
+                .description("Messaggi di invalidazione pubblicati")
+                .register(registry);
+        this.coalesced = Counter.builder("rubrica.cache.invalidation.coalesced")
+                .description("Chiavi fuse con una già in attesa")
+                .register(registry);
+        this.batchSizes = DistributionSummary.builder("rubrica.cache.invalidation.batch.size")
+                .description("Chiavi per messaggio")
+                .register(registry);
+        this.received = Counter.builder("rubrica.cache.invalidation.received")
+                .description("Chiavi invalidate da altri nodi")
+                .register(registry);
+        bus.subscribe(this::onInvalidation);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onContattoEvent(ContattoEvent event) {
+        ContattoCache.Key key = new ContattoCache.Key(event.tenantId(), event.id());
+        boolean publishNow;
+        lock.lock();
+        try {
+            if (!pending.add(key)) {
+                coalesced.increment();
+                return;
+            }
+            // dopo stop() lo scheduler non accetta più task: si pubblica subito, fuori dal lock
+            publishNow = stopped;
+            if (!publishNow && pending.size() == 1) {
+                scheduler.schedule(this::flush, properties.getLinger().toNanos(), TimeUnit.NANOSECONDS);
+            } else if (!publishNow && pending.size() >= properties.getMaxBatchSize()) {
+                scheduler.execute(this::flush);
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (publishNow) {
+            flush();
+        }
+    }
+
+    /** Pubblica subito le chiavi in attesa. */
+    void flush() {
+        Set<ContattoCache.Key> batch;
+        lock.lock();
+        try {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = pending;
+            pending = new LinkedHashSet<>();
+        } finally {
+            lock.unlock();
+        }
+        List<ContattoCache.Key> keys = new ArrayList<>(batch);
+        for (int from = 0; from < keys.size(); from += properties.getMaxBatchSize()) {
+            List<ContattoCache.Key> chunk = keys.subList(from, Math.min(from + properties.getMaxBatchSize(), keys.size()));
+            try {
+                bus.publish(new CacheInvalidation(properties.getNodeId(), List.copyOf(chunk)));
+                published.increment();
+                batchSizes.record(chunk.size());
+            } catch (RuntimeException e) {
+                // best-effort: gli altri nodi si riallineano alla scadenza del TTL
+                log.warn("Pubblicazione di {} invalidazioni fallita: {}", chunk.size(), e.getMessage());
+            }
+        }
+    }
+
+    void onInvalidation(CacheInvalidation invalidation) {
+        if (properties.getNodeId().equals(invalidation.origin())) {
+            return;
+        }
+        Set<String> tenants = new LinkedHashSet<>();
+        for (ContattoCache.Key key : invalidation.keys()) {
+            cache.invalidate(key);
+            tenants.add(key.tenant());
+        }
+        for (String tenant : tenants) {
+            if (routing != null) {
+                routing.markBehind(tenant);
+            }
+            revisions.advance(tenant);
+        }
+        received.increment(invalidation.keys().size());
+    }
+
+    /**
+     * Annulla l'attesa del blocco in corso e lo pubblica subito. Le scritture committate dopo vengono
+     * pubblicate una per volta, senza attesa.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        lock.lock();
+        try {
+            stopped = true;
+        } finally {
+            lock.unlock();
+        }
+        scheduler.shutdownNow();
+        scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        flush();
+    }
+}
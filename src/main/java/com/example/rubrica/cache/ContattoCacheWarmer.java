@@ -0,0 +1,58 @@
+package com.example.rubrica.cache;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import com.example.rubrica.dto.ContattoResponse;
+import com.example.rubrica.repository.ContattoRepository;
+import com.example.rubrica.routing.DataSourceRouting;
+import com.example.rubrica.tenant.TenantContext;
+
+/**
+ * Precarica nella cache per id i contatti modificati più di recente di ogni tenant, così dopo un
+ * riavvio con un database persistente le prime letture non vanno tutte sul disco.
+ */
+@Component
+public class ContattoCacheWarmer {
+
+    private static final Logger log = LoggerFactory.getLogger(ContattoCacheWarmer.class);
+
+    private final ContattoRepository repo;
+    private final ContattoCache cache;
+    private final int size;
+
+    public ContattoCacheWarmer(ContattoRepository repo, ContattoCache cache,
+            @Value("${rubrica.cache.warm-up.size:0}") int size) {
+        this.repo = repo;
+        this.cache = cache;
+        this.size = size;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (size <= 0) {
+            return;
+        }
+        long start = System.nanoTime();
+        int count = 0;
+        // dal primario: una replica in ritardo lascerebbe in cache valori vecchi fino alla scadenza
+        List<String> tenants = DataSourceRouting.onPrimary(
+                () -> TenantContext.callAs(TenantContext.ROOT, repo::findTenantIds));
+        for (String tenant : tenants) {
+            List<ContattoResponse> recenti = DataSourceRouting.onPrimary(
+                    () -> TenantContext.callAs(tenant, () -> repo.findRecentlyUpdated(Limit.of(size))));
+            for (ContattoResponse contatto : recenti) {
+                cache.putIfAbsent(tenant, contatto);
+                count++;
+            }
+        }
+        log.info("Cache precaricata: {} contatti in {} ms", count, (System.nanoTime() - start) / 1_000_000);
+    }
+}
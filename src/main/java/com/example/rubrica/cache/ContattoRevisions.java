@@ -0,0 +1,48 @@
+package com.example.rubrica.cache;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.rubrica.service.event.ContattoEvent;
+import com.example.rubrica.tenant.TenantContext;
+
+/**
+ * Revisione della rubrica di ogni tenant, incrementata dopo ogni scrittura committata in quel tenant.
+ * Serve da ETag per le liste: finché la revisione non cambia una richiesta condizionale può rispondere
+ * 304 senza leggere il database. L'epoch di avvio evita di riusare gli stessi ETag dopo un riavvio.
+ */
+@Component
+public class ContattoRevisions {
+
+    private final long epoch = System.currentTimeMillis();
+    private final ConcurrentMap<String, AtomicLong> revisions = new ConcurrentHashMap<>();
+
+    /** Revisione del tenant corrente. */
+    public long current() {
+        AtomicLong revision = revisions.get(TenantContext.current());
+        return revision != null ? revision.get() : 0;
+    }
+
+    /**
+     * ETag debole della revisione corrente: identifica i dati, non i byte, che cambiano con la codifica
+     * negoziata e con la compressione (Tomcat non comprime le risposte con ETag forte). Contiene il
+     * tenant: due tenant con lo stesso numero di scritture non devono condividere l'ETag.
+     */
+    public String etag() {
+        return "W/\"" + TenantContext.current() + "." + epoch + "." + current() + "\"";
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onContattoEvent(ContattoEvent event) {
+        advance(event.tenantId());
+    }
+
+    /** Nuova revisione per {@code tenant}; usato anche per le modifiche annunciate da altri nodi. */
+    public void advance(String tenant) {
+        revisions.computeIfAbsent(tenant, t -> new AtomicLong()).incrementAndGet();
+    }
+}
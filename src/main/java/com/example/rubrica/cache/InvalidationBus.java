@@ -0,0 +1,18 @@
+package com.example.rubrica.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * Trasporto delle invalidazioni della cache tra i nodi. Ogni nodo pubblica i propri blocchi e riceve
+ * quelli di tutti, compresi i propri, che scarta in base a {@link CacheInvalidation#origin()}.
+ * <p>
+ * La consegna è best-effort: un messaggio perso lascia il valore vecchio fino al TTL di
+ * {@code rubrica.cache.specs.contatti}, che resta il limite superiore alla staleness. Per un trasporto
+ * di rete (Redis pub/sub, JMS, ...) basta registrare un bean che implementa questa interfaccia.
+ */
+public interface InvalidationBus {
+
+    void publish(CacheInvalidation invalidation);
+
+    void subscribe(Consumer<CacheInvalidation> listener);
+}
@@ -0,0 +1,25 @@
+package com.example.rubrica.cache;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties("rubrica.cache.invalidation")
+public class InvalidationProperties {
+
+    /** Se attivo, le scritture committate su questo nodo tolgono i contatti dalle cache degli altri. */
+    private boolean enabled = false;
+
+    /** Identificativo del nodo, per scartare i propri messaggi; di default uno casuale a ogni avvio. */
+    private String nodeId = UUID.randomUUID().toString();
+
+    /** Attesa massima, dopo la prima chiave, prima di pubblicare il blocco. */
+    private Duration linger = Duration.ofMillis(20);
+
+    /** Chiavi massime per messaggio: un blocco pieno parte senza aspettare {@code linger}. */
+    private int maxBatchSize = 1000;
+}
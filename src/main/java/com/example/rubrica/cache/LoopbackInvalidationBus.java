@@ -0,0 +1,37 @@
+package com.example.rubrica.cache;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bus in memoria: consegna ogni messaggio, sul thread di chi pubblica, a tutti gli iscritti dello
+ * stesso processo. Con una sola istanza dell'applicazione non invalida niente; serve a far girare più
+ * nodi nella stessa JVM (test) e come trasporto di default finché non ne viene configurato un altro.
+ */
+public class LoopbackInvalidationBus implements InvalidationBus {
+
+    private static final Logger log = LoggerFactory.getLogger(LoopbackInvalidationBus.class);
+
+    private final List<Consumer<CacheInvalidation>> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(CacheInvalidation invalidation) {
+        for (Consumer<CacheInvalidation> listener : listeners) {
+            try {
+                listener.accept(invalidation);
+            } catch (RuntimeException e) {
+                // un iscritto che fallisce non deve togliere il messaggio agli altri
+                log.warn("Invalidazione non applicata da un iscritto: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<CacheInvalidation> listener) {
+        listeners.add(listener);
+    }
+}
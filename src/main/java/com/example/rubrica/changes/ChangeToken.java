@@ -0,0 +1,33 @@
+package com.example.rubrica.changes;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Posizione nel change log (id dell'ultima modifica letta), serializzata come token opaco.
+ */
+public record ChangeToken(long lastId) {
+
+    public static final ChangeToken START = new ChangeToken(0);
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(Long.toString(lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** Token assente o vuoto: dall'inizio del change log. */
+    public static ChangeToken decode(String token) {
+        if (token == null || token.isBlank()) {
+            return START;
+        }
+        try {
+            long lastId = Long.parseLong(new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8));
+            if (lastId < 0) {
+                throw new IllegalArgumentException("Token non valido");
+            }
+            return new ChangeToken(lastId);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Token non valido", e);
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.example.rubrica.changes;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.rubrica.cache.ContattoCache;
+import com.example.rubrica.cache.InvalidationBus;
+import com.example.rubrica.cache.InvalidationProperties;
+import com.example.rubrica.dto.ChangeBatch;
+import com.example.rubrica.dto.ContattoChangeResponse;
+import com.example.rubrica.dto.ContattoResponse;
+import com.example.rubrica.model.ContattoChange;
+import com.example.rubrica.model.ContattoChangeLock;
+import com.example.rubrica.repository.ContattoChangeRepository;
+import com.example.rubrica.routing.DataSourceRouting;
+import com.example.rubrica.service.event.ContattoEvent;
+import com.example.rubrica.tenant.TenantContext;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+
+/**
+ * Change log ordinato delle modifiche ai contatti, scritto nella stessa transazione della modifica
+ * (fase BEFORE_COMMIT), e letto a blocchi a partire da un {@link ChangeToken}.
+ * <p>
+ * Un lettore non deve mai vedere un id prima di uno più basso ancora da committare, altrimenti il
+ * token lo supererebbe e quella modifica andrebbe persa. Per questo l'ordine lo decide il database:
+ * ogni transazione blocca la riga di {@link ContattoChangeLock} prima di prendere gli id (dalla
+ * sequence, uno alla volta) e la tiene fino al commit, quindi le transazioni che scrivono nel change
+ * log committano nell'ordine dei propri id, anche tra più nodi. Le letture vanno sempre sul primario:
+ * una replica in ritardo potrebbe non avere ancora un id più basso di quelli già restituiti.
+ * <p>
+ * Gli id sono unici tra tutti i tenant; ogni tenant legge solo le proprie righe e viene svegliato dai
+ * propri commit e, con {@code rubrica.cache.invalidation.enabled}, da quelli degli altri nodi.
+ */
+@Component
+public class ContattoChangeLog implements InitializingBean {
+
+    /** Risorsa di transazione: presente se la transazione ha già bloccato l'ordine del change log. */
+    private static final Object ORDER_LOCK = new Object();
+
+    private final ContattoChangeRepository repo;
+    private final EntityManager entityManager;
+    private final TransactionTemplate writeTx;
+    private final ConcurrentMap<String, Set<CompletableFuture<Void>>> waiters = new ConcurrentHashMap<>();
+
+    public ContattoChangeLog(ContattoChangeRepository repo, EntityManager entityManager,
+            PlatformTransactionManager transactionManager, ObjectProvider<InvalidationBus> invalidationBus,
+            ObjectProvider<InvalidationProperties> invalidationProperties) {
+        this.repo = repo;
+        this.entityManager = entityManager;
+        this.writeTx = new TransactionTemplate(transactionManager);
+        InvalidationBus bus = invalidationBus.getIfAvailable();
+        InvalidationProperties properties = invalidationProperties.getIfAvailable();
+        if (bus != null && properties != null) {
+            bus.subscribe(invalidation -> {
+                if (!properties.getNodeId().equals(invalidation.origin())) {
+                    invalidation.keys().stream().map(ContattoCache.Key::tenant).distinct().forEach(this::notifyWaiters);
+                }
+            });
+        }
+    }
+
+    /** Crea la riga di {@link ContattoChangeLock}; con lo schema di Flyway c'è già. */
+    @Override
+    public void afterPropertiesSet() {
+        try {
+            writeTx.executeWithoutResult(status -> {
+                if (entityManager.find(ContattoChangeLock.class, ContattoChangeLock.ID) == null) {
+                    entityManager.persist(new ContattoChangeLock(ContattoChangeLock.ID));
+                }
+            });
+        } catch (DataIntegrityViolationException e) {
+            // creata nel frattempo da un altro nodo
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onContattoEvent(ContattoEvent event) {
+        ContattoChange change = toChange(event);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            writeTx.executeWithoutResult(status -> {
+                lockOrder();
+                repo.save(change);
+            });
+            notifyWaiters(event.tenantId());
+            return;
+        }
+
+        if (!TransactionSynchronizationManager.hasResource(ORDER_LOCK)) {
+            lockOrder();
+            TransactionSynchronizationManager.bindResource(ORDER_LOCK, Boolean.TRUE);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(ORDER_LOCK);
+                    if (status == STATUS_COMMITTED) {
+                        notifyWaiters(event.tenantId());
+                    }
+                }
+            });
+        }
+        repo.save(change);
+    }
+
+    /**
+     * Blocca la riga d'ordine fino alla fine della transazione. Prima svuota il persistence context:
+     * le righe dei contatti vanno bloccate prima di quella d'ordine, altrimenti due transazioni
+     * potrebbero aspettarsi a vicenda (una con la riga d'ordine, l'altra con il contatto).
+     */
+    private void lockOrder() {
+        entityManager.flush();
+        if (entityManager.find(ContattoChangeLock.class, ContattoChangeLock.ID,
+                LockModeType.PESSIMISTIC_WRITE) == null) {
+            throw new IllegalStateException("Riga " + ContattoChangeLock.ID + " di contatto_change_lock assente");
+        }
+    }
+
+    /**
+     * Fino a {@code limit} modifiche successive al token, in ordine. Non aspetta: se non ce ne sono
+     * restituisce un blocco vuoto con lo stesso token.
+     */
+    @Transactional(readOnly = true)
+    public ChangeBatch read(String since, int limit) {
+        ChangeToken from = ChangeToken.decode(since);
+        List<ContattoChange> rows = DataSourceRouting.onPrimary(
+                () -> repo.findByIdGreaterThanOrderByIdAsc(from.lastId(), Limit.of(limit + 1)));
+        boolean hasMore = rows.size() > limit;
+        List<ContattoChangeResponse> changes = rows.stream().limit(limit).map(ContattoChangeLog::toResponse).toList();
+        String nextToken = changes.isEmpty() ? from.encode() : changes.get(changes.size() - 1).getToken();
+        return new ChangeBatch(changes, nextToken, hasMore);
+    }
+
+    /** Token della posizione attuale: chi ha appena letto l'intera rubrica riparte da qui. */
+    @Transactional(readOnly = true)
+    public String headToken() {
+        Long head = DataSourceRouting.onPrimary(() -> repo.findHeadId());
+        return new ChangeToken(head == null ? 0 : head).encode();
+    }
+
+    /**
+     * Completato al prossimo commit del tenant corrente che scrive nel change log. Va richiesto prima
+     * di {@link #read}, così una modifica arrivata tra la lettura e l'attesa non va persa.
+     */
+    public CompletableFuture<Void> nextChange() {
+        CompletableFuture<Void> waiter = new CompletableFuture<>();
+        Set<CompletableFuture<Void>> tenantWaiters = waiters.computeIfAbsent(TenantContext.current(),
+                t -> ConcurrentHashMap.newKeySet());
+        tenantWaiters.add(waiter);
+        waiter.whenComplete((v, e) -> tenantWaiters.remove(waiter));
+        return waiter;
+    }
+
+    private void notifyWaiters(String tenant) {
+        Set<CompletableFuture<Void>> tenantWaiters = waiters.get(tenant);
+        if (tenantWaiters != null) {
+            for (CompletableFuture<Void> waiter : tenantWaiters) {
+                waiter.complete(null);
+            }
+        }
+    }
+
+    private static ContattoChange toChange(ContattoEvent event) {
+        ContattoChange change = new ContattoChange();
+        change.setTipo(event.type());
+        change.setContattoId(event.id());
+        ContattoResponse contatto = event.contatto();
+        if (contatto != null) {
+            change.setNome(contatto.getNome());
+            change.setCognome(contatto.getCognome());
+            change.setTelefono(contatto.getTelefono());
+            change.setEmail(contatto.getEmail());
+            change.setVersion(contatto.getVersion());
+        }
+        change.setChangedAt(Instant.now());
+        return change;
+    }
+
+    private static ContattoChangeResponse toResponse(ContattoChange change) {
+        ContattoResponse contatto = change.getTipo() == ContattoEvent.Type.DELETED ? null
+                : new ContattoResponse(change.getContattoId(), change.getNome(), change.getCognome(),
+                        change.getTelefono(), change.getEmail(), change.getVersion());
+        return new ContattoChangeResponse(new ChangeToken(change.getId()).encode(), change.getTipo(),
+                change.getContattoId(), contatto, change.getChangedAt());
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.rubrica.config;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import lombok.Data;
+
+@Configuration
+@EnableConfigurationProperties(CacheConfig.RubricaCacheProperties.class)
+public class CacheConfig {
+
+    /**
+     * Registra una cache Caffeine per ogni voce di {@code rubrica.cache.specs}, ognuna con la sua
+     * dimensione e TTL e con le statistiche attive, così le metriche compaiono in actuator.
+     */
+    @Bean
+    public CacheManagerCustomizer<CaffeineCacheManager> rubricaCacheCustomizer(RubricaCacheProperties properties) {
+        return cacheManager -> properties.getSpecs().forEach((name, spec) -> cacheManager.registerCustomCache(name,
+                Caffeine.from(spec).recordStats().build()));
+    }
+
+    @Data
+    @ConfigurationProperties("rubrica.cache")
+    public static class RubricaCacheProperties {
+
+        private Map<String, String> specs = new LinkedHashMap<>();
+    }
+}
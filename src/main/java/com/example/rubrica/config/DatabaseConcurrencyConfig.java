@@ -0,0 +1,51 @@
+package com.example.rubrica.config;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * Con {@code rubrica.db.limit-concurrency=true} avvolge il DataSource principale in un
+ * {@link ConcurrencyLimitingDataSource}. Il limite ({@code rubrica.db.max-concurrency}) vale di default
+ * quanto il pool Hikari, così le attese restano sul semaforo e non dentro il pool.
+ * <p>
+ * Con i virtual thread il default non supera i carrier dello scheduler
+ * ({@code jdk.virtualThreadScheduler.parallelism}, di default uno per core): una query che si blocca nel
+ * driver dentro un {@code synchronized} tiene fermo il suo carrier, e con più permessi che carrier le
+ * query lente li occuperebbero tutti, fermando anche le richieste che non usano il database.
+ */
+@Configuration
+@ConditionalOnProperty("rubrica.db.limit-concurrency")
+public class DatabaseConcurrencyConfig {
+
+    @Bean
+    public static BeanPostProcessor concurrencyLimitingDataSourcePostProcessor(Environment env) {
+        int maxConcurrency = env.getProperty("rubrica.db.max-concurrency", Integer.class,
+                defaultMaxConcurrency(env));
+        long acquireTimeoutMillis = env.getProperty("rubrica.db.acquire-timeout-ms", Long.class, 2000L);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if ("dataSource".equals(beanName) && bean instanceof DataSource dataSource
+                        && !(bean instanceof ConcurrencyLimitingDataSource)) {
+                    return new ConcurrencyLimitingDataSource(dataSource, maxConcurrency, acquireTimeoutMillis);
+                }
+                return bean;
+            }
+        };
+    }
+
+    static int defaultMaxConcurrency(Environment env) {
+        int poolSize = env.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10);
+        if (!env.getProperty("spring.threads.virtual.enabled", Boolean.class, false)) {
+            return poolSize;
+        }
+        int carriers = Integer.getInteger("jdk.virtualThreadScheduler.parallelism",
+                Runtime.getRuntime().availableProcessors());
+        return Math.min(poolSize, carriers);
+    }
+}
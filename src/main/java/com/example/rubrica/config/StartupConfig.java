@@ -0,0 +1,31 @@
+package com.example.rubrica.config;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.sql.init.AbstractScriptDatabaseInitializer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.example.rubrica.cache.ContattoCacheInvalidator;
+
+/**
+ * Con {@code spring.main.lazy-initialization} (profilo {@code fast-startup}) un bean nasce solo quando
+ * qualcuno lo richiede: restano eager quelli che devono girare all'avvio senza che nessuno li usi.
+ */
+@Configuration
+public class StartupConfig {
+
+    /** {@code data.sql}: con l'inizializzazione differita nessun altro bean dipende dall'initializer. */
+    @Bean
+    static LazyInitializationExcludeFilter eagerScriptDatabaseInitializer() {
+        return LazyInitializationExcludeFilter.forBeanTypes(AbstractScriptDatabaseInitializer.class);
+    }
+
+    /**
+     * Invalidazione della cache tra i nodi: nessuno la inietta, e finché non nasce non riceve le
+     * invalidazioni degli altri nodi. Un nodo che serve solo letture non la creerebbe mai.
+     */
+    @Bean
+    static LazyInitializationExcludeFilter eagerCacheInvalidator() {
+        return LazyInitializationExcludeFilter.forBeanTypes(ContattoCacheInvalidator.class);
+    }
+}
@@ -1,9 +1,8 @@
 package com.example.rubrica.controller;
 
-import java.util.List;
-
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -12,17 +11,25 @@ import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 
 import com.example.rubrica.dto.ContattoRequest;
 import com.example.rubrica.dto.ContattoResponse;
+import com.example.rubrica.dto.CursorPage;
 import com.example.rubrica.mapper.ContattoMapper;
 import com.example.rubrica.model.Contatto;
 import com.example.rubrica.service.ContattoService;
 
+import jakarta.servlet.http.HttpServletResponse;
+
 @Controller
 public class PageController {
 
     private static final Logger log = LoggerFactory.getLogger(PageController.class);
+
+    /** Righe per pagina, sia nella vista paginata sia in ogni blocco del caricamento continuo. */
+    static final int PAGE_SIZE = 50;
+
     private final ContattoService service;
     private final ContattoMapper mapper;
 
@@ -31,15 +38,25 @@ public class PageController {
         this.mapper = mapper;
     }
 
+    /**
+     * Una pagina alla volta con paginazione keyset: il costo della risposta dipende solo da
+     * {@link #PAGE_SIZE}, non dalla dimensione della rubrica né dalla posizione del cursore.
+     */
     @GetMapping("/")
-    public String index(Model model) {
-        log.info("[GET /] Richiesta lista contatti");
+    public String index(@RequestParam(required = false) String nome,
+            @RequestParam(required = false) String cognome,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean continuo, Model model) {
+        log.info("[GET /] Richiesta lista contatti (nome={}, cognome={}, cursor={})", nome, cognome, cursor);
+        model.addAttribute("nome", nome);
+        model.addAttribute("cognome", cognome);
+        model.addAttribute("continuo", continuo);
         try {
-            List<ContattoResponse> contatti = service.findAll()
-                    .stream()
-                    .map(mapper::toResponse)
-                    .toList();
-            model.addAttribute("contatti", contatti);
+            addPage(model, nome, cognome, cursor);
+            return "index";
+        } catch (IllegalArgumentException e) {
+            log.warn("[GET /] {}", e.getMessage());
+            model.addAttribute("errorMessage", "Pagina non valida: ripartire dall'inizio.");
             return "index";
         } catch (Exception e) {
             log.error("Errore durante il caricamento della lista contatti: {}", e.getMessage(), e);
@@ -48,12 +65,37 @@ public class PageController {
         }
     }
 
+    /**
+     * Solo le righe della pagina successiva, come frammento HTML, per il caricamento continuo
+     * durante lo scroll.
+     */
+    @GetMapping("/contatti/righe")
+    public String righe(@RequestParam(required = false) String nome,
+            @RequestParam(required = false) String cognome,
+            @RequestParam String cursor, Model model, HttpServletResponse response) {
+        model.addAttribute("nome", nome);
+        model.addAttribute("cognome", cognome);
+        try {
+            addPage(model, nome, cognome, cursor);
+            return "index :: righe";
+        } catch (IllegalArgumentException e) {
+            log.warn("[GET /contatti/righe] {} (400)", e.getMessage());
+            response.setStatus(HttpStatus.BAD_REQUEST.value());
+            return "index :: nessuna-riga";
+        }
+    }
+
+    private void addPage(Model model, String nome, String cognome, String cursor) {
+        CursorPage<ContattoResponse> pagina = service.scroll(nome, cognome, cursor, PAGE_SIZE);
+        model.addAttribute("contatti", pagina.getContent());
+        model.addAttribute("pagina", pagina);
+    }
+
     @GetMapping("/contatti/{id}")
     public String dettaglio(@PathVariable Long id, Model model) {
         log.info("[GET /contatti/{}] Richiesta dettagli contatto", id);
         try {
-            return service.findById(id)
-                    .map(mapper::toResponse)
+            return service.findResponseById(id)
                     .map(cr -> {
                         model.addAttribute("contatto", cr);
                         log.info("Contatto id={} trovato", id);
@@ -119,9 +161,9 @@ public class PageController {
     public String mostraFormModifica(@PathVariable Long id, Model model) {
         log.info("[GET /contatti/{}/edit] Richiesta form modifica contatto", id);
         try {
-            Contatto contatto = service.findById(id)
+            ContattoResponse contatto = service.findResponseById(id)
                     .orElseThrow(() -> new IllegalArgumentException("Contatto non trovato: " + id));
-            model.addAttribute("contatto", mapper.toResponse(contatto));
+            model.addAttribute("contatto", contatto);
             return "edit";
         } catch (IllegalArgumentException e) {
             log.warn("Contatto id={} non trovato per modifica", id);
@@ -0,0 +1,178 @@
+package com.example.rubrica.controller.web.api;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.example.rubrica.accesslog.AccessLogFilter;
+import com.example.rubrica.changes.ChangeToken;
+import com.example.rubrica.changes.ContattoChangeLog;
+import com.example.rubrica.dto.ChangeBatch;
+import com.example.rubrica.dto.ContattoChangeResponse;
+import com.example.rubrica.metrics.StatementCounter;
+import com.example.rubrica.tenant.TenantContext;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Feed incrementale delle modifiche ai contatti: a blocchi con long-poll opzionale, oppure in
+ * streaming come Server-Sent Events.
+ */
+@RestController
+@RequestMapping(ContattoController.BASE_PATH + "/changes")
+public class ContattoChangeController {
+
+    /** Header con il token del change log, restituito insieme alla lista completa. */
+    public static final String CHANGE_TOKEN_HEADER = "X-Change-Token";
+
+    private static final int MAX_LIMIT = 5000;
+    private static final int MAX_WAIT_SECONDS = 60;
+    private static final int STREAM_BATCH_SIZE = 500;
+
+    private static final Logger log = LoggerFactory.getLogger(ContattoChangeController.class);
+
+    private final ContattoChangeLog changeLog;
+    private final AsyncTaskExecutor executor;
+
+    public ContattoChangeController(ContattoChangeLog changeLog,
+            @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) AsyncTaskExecutor executor) {
+        this.changeLog = changeLog;
+        this.executor = executor;
+    }
+
+    /**
+     * Modifiche successive a {@code since}. Con {@code wait} e nessuna modifica disponibile la risposta
+     * resta in attesa (senza occupare un thread) fino al prossimo commit o allo scadere dei secondi.
+     */
+    @GetMapping
+    public CompletableFuture<ResponseEntity<ChangeBatch>> changes(@RequestParam(required = false) String since,
+            @RequestParam(defaultValue = "500") int limit,
+            @RequestParam(defaultValue = "0") int wait) {
+
+        if (limit < 1 || limit > MAX_LIMIT || wait < 0 || wait > MAX_WAIT_SECONDS) {
+            log.warn("[GET /contatti/changes] Parametri non validi: limit={} wait={} (400)", limit, wait);
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+        }
+
+        CompletableFuture<Void> next = wait > 0 ? changeLog.nextChange() : null;
+        ChangeBatch batch;
+        try {
+            batch = changeLog.read(since, limit);
+        } catch (IllegalArgumentException e) {
+            cancel(next);
+            log.warn("[GET /contatti/changes] {} (400)", e.getMessage());
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+        }
+        if (next == null || !batch.getChanges().isEmpty()) {
+            cancel(next);
+            return CompletableFuture.completedFuture(ResponseEntity.ok(batch));
+        }
+        String tenant = TenantContext.current();
+        Supplier<ChangeBatch> read = StatementCounter.counted(
+                () -> TenantContext.callAs(tenant, () -> changeLog.read(since, limit)));
+        return next.completeOnTimeout(null, wait, TimeUnit.SECONDS)
+                .thenApplyAsync(v -> ResponseEntity.ok(read.get()), executor);
+    }
+
+    /**
+     * Stream SSE: prima le modifiche arretrate, poi quelle nuove appena committate. L'id di ogni
+     * evento è il token della modifica, quindi un client che si riconnette con {@code Last-Event-ID}
+     * riparte senza perdite.
+     */
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> stream(@RequestParam(required = false) String since,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+            HttpServletRequest request) {
+
+        String from = lastEventId != null ? lastEventId : since;
+        try {
+            ChangeToken.decode(from);
+        } catch (IllegalArgumentException e) {
+            log.warn("[GET /contatti/changes/stream] {} (400)", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+
+        AccessLogFilter.markStreaming(request);
+        SseEmitter emitter = new SseEmitter();
+        Subscription subscription = new Subscription(emitter, from);
+        executor.execute(subscription::pump);
+        return ResponseEntity.ok(emitter);
+    }
+
+    private static void cancel(CompletableFuture<Void> future) {
+        if (future != null) {
+            future.cancel(false);
+        }
+    }
+
+    private final class Subscription {
+
+        private final SseEmitter emitter;
+        /** Tenant della richiesta: {@link #pump} gira sui thread dell'executor. */
+        private final String tenant = TenantContext.current();
+        private volatile String token;
+        private volatile boolean closed;
+        private volatile CompletableFuture<Void> waiting;
+
+        Subscription(SseEmitter emitter, String token) {
+            this.emitter = emitter;
+            this.token = token;
+            emitter.onCompletion(this::close);
+            emitter.onTimeout(this::close);
+            emitter.onError(e -> close());
+        }
+
+        void pump() {
+            TenantContext.runAs(tenant, this::pumpBatches);
+        }
+
+        private void pumpBatches() {
+            try {
+                while (!closed) {
+                    CompletableFuture<Void> next = changeLog.nextChange();
+                    ChangeBatch batch = changeLog.read(token, STREAM_BATCH_SIZE);
+                    for (ContattoChangeResponse change : batch.getChanges()) {
+                        emitter.send(SseEmitter.event()
+                                .id(change.getToken())
+                                .name(change.getType().name())
+                                .data(change, MediaType.APPLICATION_JSON));
+                    }
+                    token = batch.getNextToken();
+                    if (batch.isHasMore()) {
+                        next.cancel(false);
+                        continue;
+                    }
+                    waiting = next;
+                    if (closed) {
+                        next.cancel(false);
+                    } else {
+                        next.thenRunAsync(this::pump, executor);
+                    }
+                    return;
+                }
+            } catch (IOException | RuntimeException e) {
+                emitter.completeWithError(e);
+            }
+        }
+
+        void close() {
+            closed = true;
+            cancel(waiting);
+        }
+    }
+}
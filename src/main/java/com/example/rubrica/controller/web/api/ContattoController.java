@@ -1,14 +1,26 @@
 package com.example.rubrica.controller.web.api;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -16,16 +28,42 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
-
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.example.rubrica.accesslog.AccessLogFilter;
+import com.example.rubrica.bulk.ContattoBulkImporter;
+import com.example.rubrica.cache.ContattoRevisions;
+import com.example.rubrica.changes.ContattoChangeLog;
+import com.example.rubrica.dedup.DuplicateDetector;
+import com.example.rubrica.dto.BatchItemResult;
+import com.example.rubrica.dto.BulkImportReport;
+import com.example.rubrica.dto.ContattoBatchUpdate;
 import com.example.rubrica.dto.ContattoRequest;
 import com.example.rubrica.dto.ContattoResponse;
+import com.example.rubrica.dto.ContattoSearchParams;
+import com.example.rubrica.dto.CursorPage;
+import com.example.rubrica.dto.DuplicateGroup;
+import com.example.rubrica.export.ContattoExportWriter;
+import com.example.rubrica.export.ExportFormat;
+import com.example.rubrica.ingest.ContattoIngestQueue;
 import com.example.rubrica.mapper.ContattoMapper;
 import com.example.rubrica.model.Contatto;
+import com.example.rubrica.search.ContattoQuery;
+import com.example.rubrica.search.MatchMode;
 import com.example.rubrica.service.ContattoService;
-
+import com.example.rubrica.tenant.TenantContext;
+import com.example.rubrica.tenant.TenantProperties;
+import com.example.rubrica.tenant.TenantQuotaExceededException;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 
 @RestController
@@ -34,66 +72,237 @@ public class ContattoController {
     public static final String BASE_PATH = "/api/contatti";
     private final ContattoService service;
     private final ContattoMapper mapper;
+    private final ObjectMapper objectMapper;
+    private final ContattoBulkImporter bulkImporter;
+    private final ContattoRevisions revisions;
+    private final DuplicateDetector duplicateDetector;
+    private final ContattoChangeLog changeLog;
+    private final ContattoIngestQueue ingestQueue;
+    private final String tenantHeader;
+
+    private static final int MAX_SCROLL_SIZE = 1000;
+    private static final int MAX_BATCH_SIZE = 5000;
 
     private static final Logger log = LoggerFactory.getLogger(ContattoController.class);
 
-    public ContattoController(ContattoService service, ContattoMapper mapper) {
+    public ContattoController(ContattoService service, ContattoMapper mapper, ObjectMapper objectMapper,
+            ContattoBulkImporter bulkImporter, ContattoRevisions revisions, DuplicateDetector duplicateDetector,
+            ContattoChangeLog changeLog, ContattoIngestQueue ingestQueue, TenantProperties tenantProperties) {
         this.service = service;
         this.mapper = mapper;
-
+        this.objectMapper = objectMapper;
+        this.bulkImporter = bulkImporter;
+        this.revisions = revisions;
+        this.duplicateDetector = duplicateDetector;
+        this.changeLog = changeLog;
+        this.ingestQueue = ingestQueue;
+        this.tenantHeader = tenantProperties.getHeader();
     }
 
     @GetMapping
-    public ResponseEntity<List<ContattoResponse>> findAll() {
+    public ResponseEntity<List<ContattoResponse>> findAll(WebRequest request) {
+        String etag = revisions.etag();
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
         try {
-            log.info("Request [GET /contatti]");
-            List<ContattoResponse> response = service.findAll().stream().map(mapper::toResponse).toList();
-            if (response.isEmpty()) {
-                log.info("[GET /contatti] Nessun contatto trovato (200 OK, lista vuota)");
-            }
-            log.info("[GET /contatti] Restituiti {} contatti (200 OK)", response.size());
-            log.debug("Response body: {}", response);
-            return ResponseEntity.ok(response);
+            // token letto prima della lista: le modifiche successive arrivano dal feed, al più ripetute
+            String changeToken = changeLog.headToken();
+            List<ContattoResponse> response = service.findAll();
+            return revalidated(etag)
+                    .header(ContattoChangeController.CHANGE_TOKEN_HEADER, changeToken)
+                    .body(response);
         } catch (Exception e) {
-            log.error("Errore {} durante Fla chiamata a [GET /contatti]: {}", e.getClass().getSimpleName(),
+            log.error("Errore {} durante la chiamata a [GET /contatti]: {}", e.getClass().getSimpleName(),
                     e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
+    /**
+     * Il formato arriva da {@code format} oppure, se manca, dall'header {@code Accept}; senza nessuno dei
+     * due l'export è NDJSON. 406 se {@code Accept} non ammette nessun formato di export.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(required = false) String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept, HttpServletRequest request) {
+        ExportFormat exportFormat;
+        try {
+            exportFormat = format != null ? ExportFormat.fromParam(format)
+                    : ExportFormat.fromAccept(MediaType.parseMediaTypes(accept));
+        } catch (IllegalArgumentException e) {
+            log.warn("[GET /contatti/export] {} (400)", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+        if (exportFormat == null) {
+            log.warn("[GET /contatti/export] Nessun formato di export accettabile: {} (406)", accept);
+            return ResponseEntity.status(HttpStatus.NOT_ACCEPTABLE).build();
+        }
+
+        // il corpo viene scritto su un thread async, fuori dal TenantFilter
+        String tenant = TenantContext.current();
+        AccessLogFilter.markStreaming(request);
+        StreamingResponseBody body = out -> {
+            try (ContattoExportWriter writer = ContattoExportWriter.create(exportFormat, out, objectMapper)) {
+                long count = TenantContext.callAs(tenant, () -> service.exportAll(writer::write));
+                log.info("[GET /contatti/export] Esportati {} contatti in formato {}", count, exportFormat);
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .varyBy(HttpHeaders.ACCEPT, tenantHeader)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("contatti." + exportFormat.getExtension())
+                        .build()
+                        .toString())
+                .body(body);
+    }
+
+    @GetMapping("/duplicates")
+    public ResponseEntity<StreamingResponseBody> duplicates(@RequestParam(required = false) Double threshold,
+            HttpServletRequest request) {
+        if (threshold != null && (threshold <= 0 || threshold > 1)) {
+            log.warn("[GET /contatti/duplicates] Soglia non valida: {} (400)", threshold);
+            return ResponseEntity.badRequest().build();
+        }
+
+        String tenant = TenantContext.current();
+        AccessLogFilter.markStreaming(request);
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+                generator.setRootValueSeparator(new SerializedString("\n"));
+                double soglia = threshold != null ? threshold : duplicateDetector.getDefaultThreshold();
+                TenantContext.runAs(tenant, () -> duplicateDetector.run(soglia, (DuplicateGroup group) -> {
+                    try {
+                        generator.writeObject(group);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }));
+                generator.writeRaw('\n');
+            }
+        };
+        return ResponseEntity.ok().contentType(ExportFormat.NDJSON.getMediaType()).body(body);
+    }
+
+    /**
+     * Con {@code rubrica.ingest.enabled} l'inserimento passa dalla coda write-behind: la risposta arriva
+     * dopo il commit del blocco che lo contiene, oppure subito con 429 se la coda è piena.
+     */
     @PostMapping
-    public ResponseEntity<ContattoResponse> insertContatto(@Valid @RequestBody ContattoRequest contatto) {
-        log.info("[POST /contatti] Richiesta creazione contatto");
-        log.debug("Request body: {}", contatto);
+    public CompletableFuture<ResponseEntity<ContattoResponse>> insertContatto(
+            @Valid @RequestBody ContattoRequest contatto) {
+        if (ingestQueue.isRunning()) {
+            CompletableFuture<ContattoResponse> saved = ingestQueue.submit(contatto);
+            if (saved == null) {
+                log.warn("[POST /contatti] Coda di inserimento piena (429)");
+                return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                        .header(HttpHeaders.RETRY_AFTER, "1").<ContattoResponse>build());
+            }
+            return saved.handle((response, e) -> {
+                if (e instanceof TenantQuotaExceededException quota) {
+                    log.warn("[POST /contatti] {} (403)", quota.getMessage());
+                    return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+                }
+                if (e != null) {
+                    log.error("Errore {} durante la chiamata a [POST /contatti]: {}", e.getClass().getSimpleName(),
+                            e.getMessage(), e);
+                    return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+                }
+                return ResponseEntity.status(HttpStatus.CREATED).body(response);
+            });
+        }
         try {
             Contatto entity = mapper.toEntity(contatto);
 
             Contatto saved = service.insertContatto(entity);
 
             ContattoResponse response = mapper.toResponse(saved);
-            log.info("[POST /contatti] Restituiti {} contatti (201 CREATED)");
-            log.debug("Response POST /contatti: {}", response);
-            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.CREATED).body(response));
+        } catch (TenantQuotaExceededException e) {
+            log.warn("[POST /contatti] {} (403)", e.getMessage());
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.FORBIDDEN).build());
         } catch (Exception e) {
             log.error("Errore {} durante la chiamata a [POST /contatti]: {}", e.getClass().getSimpleName(),
                     e.getMessage(), e);
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build());
+        }
+    }
+
+    @PostMapping(path = "/bulk", consumes = { "text/csv", "application/x-ndjson" })
+    public ResponseEntity<BulkImportReport> bulkImport(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            InputStream body) {
+        try {
+            BulkImportReport report = ExportFormat.CSV.getMediaType().isCompatibleWith(contentType)
+                    ? bulkImporter.importCsv(body)
+                    : bulkImporter.importNdjson(body);
+            return ResponseEntity.ok(report);
+        } catch (IllegalArgumentException | IOException e) {
+            log.warn("[POST /contatti/bulk] Richiesta non valida: {} (400)", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Errore {} durante la chiamata a [POST /contatti/bulk]: {}", e.getClass().getSimpleName(),
+                    e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
-    @GetMapping("/{id}")
-    public ResponseEntity<ContattoResponse> findById(@PathVariable Long id) {
+    @PostMapping("/batch/get")
+    public ResponseEntity<List<BatchItemResult>> findAllById(@RequestBody List<Long> ids) {
+        if (ids.size() > MAX_BATCH_SIZE || ids.contains(null)) {
+            log.warn("[POST /contatti/batch/get] Batch non valido: {} id (400)", ids.size());
+            return ResponseEntity.badRequest().build();
+        }
         try {
-            log.info(" [GET /contatti/{}] Richiesta dettaglio contatto", id);
+            return ResponseEntity.ok(service.findAllById(ids));
+        } catch (Exception e) {
+            log.error("Errore {} durante la chiamata a [POST /contatti/batch/get]: {}", e.getClass().getSimpleName(),
+                    e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
 
-            return service.findById(id)
-                    .map(mapper::toResponse)
-                    .map(ResponseEntity::ok)
-                    .orElseGet(() -> {
-                        log.warn("[GET /contatti/{}] Contatto non trovato (404)", id);
-                        return ResponseEntity.notFound().build();
-                    });
+    @PutMapping("/batch")
+    public ResponseEntity<List<BatchItemResult>> updateAll(@RequestBody List<ContattoBatchUpdate> updates) {
+        if (updates.size() > MAX_BATCH_SIZE || updates.contains(null)) {
+            log.warn("[PUT /contatti/batch] Batch non valido: {} elementi (400)", updates.size());
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(service.updateAll(updates));
+        } catch (OptimisticLockingFailureException e) {
+            log.warn("[PUT /contatti/batch] Contatti modificati nel frattempo, batch annullato (409)");
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (Exception e) {
+            log.error("Errore {} durante la chiamata a [PUT /contatti/batch]: {}", e.getClass().getSimpleName(),
+                    e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
 
+    @PostMapping("/batch/delete")
+    public ResponseEntity<List<BatchItemResult>> deleteAll(@RequestBody List<Long> ids) {
+        if (ids.size() > MAX_BATCH_SIZE || ids.contains(null)) {
+            log.warn("[POST /contatti/batch/delete] Batch non valido: {} id (400)", ids.size());
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(service.deleteAll(ids));
+        } catch (Exception e) {
+            log.error("Errore {} durante la chiamata a [POST /contatti/batch/delete]: {}",
+                    e.getClass().getSimpleName(), e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ContattoResponse> findById(@PathVariable Long id) {
+        try {
+            return service.findResponseById(id)
+                    .map(c -> revalidated(etag(c), c))
+                    .orElseGet(() -> ResponseEntity.notFound().build());
         } catch (Exception e) {
             log.error("Errore {} durante la chiamata a [GET /contatti/{}]: {}", e.getClass().getSimpleName(), id,
                     e.getMessage(), e);
@@ -103,16 +312,18 @@ public class ContattoController {
 
     @PutMapping("/{id}")
     public ResponseEntity<ContattoResponse> updateContatto(@PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Valid @RequestBody ContattoRequest contatto) {
-        log.info("[PUT /contatti/{}]", id);
-        log.debug("[PUT /contatti/{}] Request body: {}", id, contatto);
         try {
-            Contatto response = service.updateContatto(id, contatto);
-
-            log.info("[PUT /contatti/{}] Modifica del contatto (200)", id);
-            log.debug("[PUT /contatti/{}] response body: {}", id, response);
+            Contatto saved = service.updateContatto(id, contatto, expectedVersion(ifMatch));
 
-            return ResponseEntity.ok(mapper.toResponse(response));
+            ContattoResponse response = mapper.toResponse(saved);
+            return ResponseEntity.ok().eTag(etag(response)).body(response);
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.notFound().build();
+        } catch (OptimisticLockingFailureException e) {
+            log.warn("[PUT /contatti/{}] Contatto modificato nel frattempo ({})", id, ifMatch != null ? 412 : 409);
+            return ResponseEntity.status(ifMatch != null ? HttpStatus.PRECONDITION_FAILED : HttpStatus.CONFLICT).build();
         } catch (Exception e) {
             log.error("Errore {} durante la chiamata a [PUT /contatti/{}]: {}", e.getClass().getSimpleName(), id,
                     e.getMessage(), e);
@@ -122,10 +333,8 @@ public class ContattoController {
 
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteContatto(@PathVariable Long id) {
-        log.info("[DELETE /contatti/{}] Richiesta eliminazione contatto", id);
         try {
             service.deleteContatto(id);
-            log.info("[DELETE /contatti/{}] Cancellazione completata (204 No Content)", id);
             return ResponseEntity.noContent().build();
         } catch (Exception e) {
             log.error("Errore {} durante la chiamata a [DELETE /contatti/{}]: {}", e.getClass().getSimpleName(), id,
@@ -134,51 +343,63 @@ public class ContattoController {
         }
     }
 
+    /**
+     * Ricerca combinata: tutti i filtri presenti in AND, confronto esatto salvo {@code match}. Senza
+     * filtri risponde 400: l'elenco completo, paginato, è su {@code /searchsort} o {@code /scroll}.
+     */
     @GetMapping("/search")
-    public ResponseEntity<List<ContattoResponse>> findByNomeAndCognomeOrCognomeOrNome(
-            @RequestParam(required = false) String nome,
-            @RequestParam(required = false) String cognome) {
-
-        List<Contatto> results;
-
-        log.info("[GET /contatti/search?nome={}&cognome={}]", nome, cognome);
+    public ResponseEntity<List<ContattoResponse>> search(ContattoSearchParams params, WebRequest request) {
 
+        String etag = revisions.etag();
         try {
-            if (nome != null && cognome != null) {
-
-                results = service.findByNomeAndCognome(nome, cognome);
-
-            } else if (nome != null) {
-
-                results = service.findByNome(nome);
-            } else if (cognome != null) {
-
-                results = service.findByCognome(cognome);
-            } else {
-                results = List.of();
+            ContattoQuery query = params.toQuery(MatchMode.EXACT);
+            if (query.isEmpty()) {
+                log.warn("[GET /contatti/search] Nessun filtro (400)");
+                return ResponseEntity.of(ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST,
+                        "Serve almeno un filtro tra nome, cognome, email, telefono e q")).build();
+            }
+            if (request.checkNotModified(etag)) {
+                return null;
             }
+            List<ContattoResponse> response = service.search(query, Pageable.unpaged(Sort.by("id"))).getContent();
+            return revalidated(etag, response);
+        } catch (IllegalArgumentException | InvalidDataAccessApiUsageException e) {
+            log.warn("[GET /contatti/search] {} (400)", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Errore {} durante la chiamata a [GET /contatti/search?{}]: {}",
+                    e.getClass().getSimpleName(), params, e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
 
-            List<ContattoResponse> response = results.stream().map(mapper::toResponse).toList();
-            log.info("GET /contatti/search Ricerca avvenuta con successo (200)");
-            log.debug("(GET /contatti/search Body response: {}", response);
+    @GetMapping("/lookup")
+    public ResponseEntity<List<ContattoResponse>> lookup(@RequestParam(required = false) String telefono,
+            @RequestParam(required = false) String email) {
+        if ((telefono == null) == (email == null)) {
+            log.warn("[GET /contatti/lookup] Serve esattamente uno tra telefono ed email (400)");
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            List<ContattoResponse> response = telefono != null ? service.findByTelefono(telefono)
+                    : service.findByEmail(email);
             return ResponseEntity.ok(response);
         } catch (Exception e) {
-            log.error("Errore {} durante la chiamata a [GET /contatti/search?nome={}&cognome={}]\"]: {}",
-                    e.getClass().getSimpleName(), nome, cognome, e.getMessage(), e);
+            log.error("Errore {} durante la chiamata a [GET /contatti/lookup?telefono={}&email={}]: {}",
+                    e.getClass().getSimpleName(), telefono, email, e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
     @GetMapping("/searchlike")
-    public ResponseEntity<List<ContattoResponse>> findByNameLike(@RequestParam String nome) {
-        log.info("[GET /contatti/searchlike?nome={}] Ricerca parziale contatti", nome);
+    public ResponseEntity<List<ContattoResponse>> findByNameLike(@RequestParam String nome, WebRequest request) {
+        String etag = revisions.etag();
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
         try {
-            List<ContattoResponse> response = service.findByNameLike(nome)
-                    .stream()
-                    .map(mapper::toResponse)
-                    .toList();
-            log.debug("[GET /contatti/searchlike] Response body: {}", response);
-            return ResponseEntity.ok(response);
+            List<ContattoResponse> response = service.findByNameLike(nome);
+            return revalidated(etag, response);
         } catch (Exception e) {
             log.error("Errore {} durante la chiamata a [GET /contatti/searchlike?nome={}\"]: {}",
                     e.getClass().getSimpleName(), nome, e.getMessage(), e);
@@ -187,40 +408,98 @@ public class ContattoController {
         }
     }
 
+    /**
+     * Come {@code /search} ma paginata e ordinabile, con confronto parziale di default. Senza filtri
+     * restituisce tutta la rubrica.
+     */
     @GetMapping("/searchsort")
     public ResponseEntity<Page<ContattoResponse>> list(
             @PageableDefault(size = 10, sort = "cognome", direction = Sort.Direction.ASC) Pageable pageable,
-            @RequestParam(required = false) String nome,
-            @RequestParam(required = false) String cognome) {
+            ContattoSearchParams params, WebRequest request) {
 
-        log.info("[GET /contatti/searchsort] Ricerca con paginazione (nome='{}', cognome='{}')", nome, cognome);
+        String etag = revisions.etag();
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
         try {
-            Page<Contatto> page;
-
-            if (nome != null && !nome.isBlank()) {
-                log.debug("[GET /contatti/searchsort] Filtro applicato: nome='{}'", nome);
-                page = service.searchByNome(nome, pageable);
-            } else if (cognome != null && !cognome.isBlank()) {
-                log.debug("[GET /contatti/searchsort] Filtro applicato: cognome='{}'", cognome);
-                page = service.searchByCognome(cognome, pageable);
-            } else {
-                log.debug("[GET /contatti/searchsort] Nessun filtro specificato: restituisco tutti i contatti");
-                page = service.findAll(pageable);
-            }
+            Page<ContattoResponse> result = service.search(params.toQuery(MatchMode.CONTAINS), pageable);
+            return revalidated(etag, result);
+        } catch (IllegalArgumentException | InvalidDataAccessApiUsageException e) {
+            log.warn("[GET /contatti/searchsort] {} (400)", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Errore {} durante la chiamata a [GET /contatti/searchsort?{}]: {}",
+                    e.getClass().getSimpleName(), params, e.getMessage(), e);
 
-            Page<ContattoResponse> result = page.map(mapper::toResponse);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
 
-            log.info("[GET /contatti/searchsort] Ricerca completata (200 OK) - Pagine: {}, Totale elementi: {}",
-                    result.getTotalPages(), result.getTotalElements());
-            log.debug("[GET /contatti/searchsort] Response body: {}", result.getContent());
+    @GetMapping("/scroll")
+    public ResponseEntity<CursorPage<ContattoResponse>> scroll(
+            @RequestParam(required = false) String nome,
+            @RequestParam(required = false) String cognome,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size, WebRequest request) {
 
-            return ResponseEntity.ok(result);
+        if (size < 1 || size > MAX_SCROLL_SIZE) {
+            log.warn("[GET /contatti/scroll] Dimensione pagina non valida: {} (400)", size);
+            return ResponseEntity.badRequest().build();
+        }
+        String etag = revisions.etag();
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        try {
+            CursorPage<ContattoResponse> result = service.scroll(nome, cognome, cursor, size);
+            return revalidated(etag, result);
+        } catch (IllegalArgumentException e) {
+            log.warn("[GET /contatti/scroll] {} (400)", e.getMessage());
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
-            log.error("Errore {} durante la chiamata a [GET /contatti/searchsort?nome={}&cognome={}\"]: {}",
+            log.error("Errore {} durante la chiamata a [GET /contatti/scroll?nome={}&cognome={}]: {}",
                     e.getClass().getSimpleName(), nome, cognome, e.getMessage(), e);
-
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
-}
\ No newline at end of file
+    /**
+     * Risposta con ETag e {@code no-cache}: il client rivalida sempre, e se l'ETag coincide con
+     * If-None-Match Spring risponde 304 senza serializzare il body. Le liste usano l'ETag debole della
+     * revisione del tenant ({@code W/"tenant.epoch.rev"}), che Tomcat lascia comprimere; il singolo contatto
+     * usa l'ETag forte della versione, confrontato anche da If-Match.
+     */
+    private <T> ResponseEntity<T> revalidated(String etag, T body) {
+        return revalidated(etag).body(body);
+    }
+
+    private ResponseEntity.BodyBuilder revalidated(String etag) {
+        // stesso ETag per tutte le codifiche e URL uguali tra tenant: Vary tiene separate le copie in cache
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).eTag(etag)
+                .varyBy(HttpHeaders.ACCEPT, tenantHeader);
+    }
+
+    private static String etag(ContattoResponse contatto) {
+        return "\"" + contatto.getVersion() + "\"";
+    }
+
+    /**
+     * Versione attesa da If-Match; {@code null} se assente o {@code *}. Un ETag debole o non
+     * riconosciuto non corrisponde a nessuna versione e produce 412.
+     */
+    private static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            try {
+                return Long.valueOf(tag.substring(1, tag.length() - 1));
+            } catch (NumberFormatException e) {
+                // gestito sotto
+            }
+        }
+        return -1L;
+    }
+
+}
@@ -0,0 +1,22 @@
+package com.example.rubrica.dedup;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties("rubrica.dedup")
+public class DedupProperties {
+
+    /** Punteggio minimo (0..1) perché due contatti siano considerati duplicati. */
+    private double threshold = 0.85;
+
+    /** Oltre questa dimensione un blocco viene confrontato a finestra scorrevole invece che tutto con tutto. */
+    private int maxBlockSize = 200;
+
+    /** Numero di vicini confrontati con ciascun contatto nei blocchi grandi. */
+    private int window = 20;
+
+    /** Thread del pool di confronto; 0 = numero di core. */
+    private int parallelism = 0;
+}
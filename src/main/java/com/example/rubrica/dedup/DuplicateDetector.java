@@ -0,0 +1,276 @@
+package com.example.rubrica.dedup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Service;
+
+import com.example.rubrica.dto.ContattoResponse;
+import com.example.rubrica.dto.DuplicateGroup;
+import com.example.rubrica.search.TextNormalizer;
+import com.example.rubrica.service.ContattoService;
+
+/**
+ * Ricerca dei contatti duplicati senza confronto tutti-con-tutti.
+ * <p>
+ * Ogni contatto finisce in pochi blocchi: chiave fonetica del cognome, coppia non ordinata di chiavi
+ * fonetiche nome/cognome (per i nomi invertiti), telefono ed email normalizzati. Si confrontano solo
+ * i contatti nello stesso blocco; i blocchi più grandi di {@code max-block-size} vengono ordinati per
+ * nome e confrontati su una finestra scorrevole, così il costo resta lineare nel numero di righe.
+ * I blocchi sono valutati in parallelo su un {@link ForkJoinPool} e le coppie sopra soglia unite in
+ * gruppi con union-find.
+ * <p>
+ * Memoria: le righe arrivano dal cursore dell'export e finiscono direttamente nella mappa dei blocchi,
+ * senza una lista intermedia, ma ogni contatto resta in memoria (proiezione più chiavi normalizzate,
+ * qualche centinaio di byte) fino alla fine. I gruppi vengono emessi solo dopo l'ultimo confronto:
+ * l'unione è transitiva, quindi un gruppo è definitivo solo quando tutti i blocchi sono stati
+ * valutati. Per rubriche che non stanno nello heap la deduplicazione va fatta per tenant o a lotti.
+ */
+@Service
+@EnableConfigurationProperties(DedupProperties.class)
+public class DuplicateDetector {
+
+    private static final Logger log = LoggerFactory.getLogger(DuplicateDetector.class);
+
+    private static final double NAME_WEIGHT = 0.6;
+    private static final double CONTACT_WEIGHT = 0.2;
+
+    private final ContattoService service;
+    private final DedupProperties properties;
+
+    public DuplicateDetector(ContattoService service, DedupProperties properties) {
+        this.service = service;
+        this.properties = properties;
+    }
+
+    public double getDefaultThreshold() {
+        return properties.getThreshold();
+    }
+
+    /**
+     * Legge tutta la rubrica e passa al sink i gruppi di probabili duplicati, ordinati per id.
+     *
+     * @return numero di gruppi trovati
+     */
+    public int run(double threshold, Consumer<DuplicateGroup> sink) {
+        long start = System.nanoTime();
+        Blocking blocking = new Blocking();
+        service.exportAll(blocking::add);
+        return detect(blocking, threshold, sink, start);
+    }
+
+    public int detect(List<ContattoResponse> contatti, double threshold, Consumer<DuplicateGroup> sink) {
+        long start = System.nanoTime();
+        Blocking blocking = new Blocking();
+        contatti.forEach(blocking::add);
+        return detect(blocking, threshold, sink, start);
+    }
+
+    private int detect(Blocking blocking, double threshold, Consumer<DuplicateGroup> sink, long start) {
+        Entry[] entries = blocking.entries.toArray(Entry[]::new);
+        List<int[]> blocks = blocking.blocks();
+        int parallelism = properties.getParallelism() > 0 ? properties.getParallelism()
+                : Runtime.getRuntime().availableProcessors();
+        List<Match> matches;
+        try (ForkJoinPool pool = new ForkJoinPool(parallelism)) {
+            matches = pool.submit(() -> blocks.parallelStream()
+                    .flatMap(block -> compare(entries, block, threshold).stream())
+                    .toList())
+                    .join();
+        }
+
+        List<DuplicateGroup> groups = groups(entries, matches);
+        groups.forEach(sink);
+        log.info("Deduplicazione: {} contatti, {} blocchi, {} coppie, {} gruppi in {} ms", entries.length,
+                blocks.size(), matches.size(), groups.size(), (System.nanoTime() - start) / 1_000_000);
+        return groups.size();
+    }
+
+    private List<Match> compare(Entry[] entries, int[] block, double threshold) {
+        List<Match> matches = new ArrayList<>();
+        if (block.length <= properties.getMaxBlockSize()) {
+            for (int i = 0; i < block.length; i++) {
+                for (int j = i + 1; j < block.length; j++) {
+                    match(entries, block[i], block[j], threshold, matches);
+                }
+            }
+            return matches;
+        }
+
+        // sorted neighborhood: ordinati per nome, ogni contatto si confronta solo con i vicini
+        Integer[] sorted = Arrays.stream(block).boxed().toArray(Integer[]::new);
+        Arrays.sort(sorted, Comparator.comparing(i -> entries[i].sortKey));
+        int window = properties.getWindow();
+        for (int i = 0; i < sorted.length; i++) {
+            for (int j = i + 1; j < sorted.length && j <= i + window; j++) {
+                match(entries, sorted[i], sorted[j], threshold, matches);
+            }
+        }
+        return matches;
+    }
+
+    private static void match(Entry[] entries, int a, int b, double threshold, List<Match> matches) {
+        double score = score(entries[a], entries[b]);
+        if (score >= threshold) {
+            matches.add(new Match(a, b, score));
+        }
+    }
+
+    /**
+     * Similarità dei nomi (anche invertiti) pesata con la corrispondenza di telefono ed email; un
+     * recapito mancante su uno dei due contatti non conta né a favore né contro.
+     */
+    static double score(Entry a, Entry b) {
+        double direct = JaroWinkler.similarity(a.nome, b.nome) + JaroWinkler.similarity(a.cognome, b.cognome);
+        double swapped = JaroWinkler.similarity(a.nome, b.cognome) + JaroWinkler.similarity(a.cognome, b.nome);
+        double total = NAME_WEIGHT * Math.max(direct, swapped) / 2;
+        double weight = NAME_WEIGHT;
+        if (a.telefono != null && b.telefono != null) {
+            weight += CONTACT_WEIGHT;
+            total += a.telefono.equals(b.telefono) ? CONTACT_WEIGHT : 0;
+        }
+        if (a.email != null && b.email != null) {
+            weight += CONTACT_WEIGHT;
+            total += a.email.equals(b.email) ? CONTACT_WEIGHT : 0;
+        }
+        return total / weight;
+    }
+
+    private static List<DuplicateGroup> groups(Entry[] entries, List<Match> matches) {
+        int[] parent = new int[entries.length];
+        double[] minScore = new double[entries.length];
+        for (int i = 0; i < parent.length; i++) {
+            parent[i] = i;
+            minScore[i] = 1.0;
+        }
+        for (Match m : matches) {
+            int ra = find(parent, m.a());
+            int rb = find(parent, m.b());
+            double score = Math.min(m.score(), Math.min(minScore[ra], minScore[rb]));
+            if (ra != rb) {
+                parent[rb] = ra;
+            }
+            minScore[ra] = score;
+        }
+
+        Map<Integer, List<ContattoResponse>> members = new HashMap<>();
+        for (Match m : matches) {
+            members.putIfAbsent(find(parent, m.a()), new ArrayList<>());
+        }
+        for (int i = 0; i < entries.length; i++) {
+            List<ContattoResponse> group = members.get(find(parent, i));
+            if (group != null) {
+                group.add(entries[i].contatto);
+            }
+        }
+
+        List<DuplicateGroup> groups = new ArrayList<>(members.size());
+        members.forEach((root, contatti) -> {
+            contatti.sort(Comparator.comparing(ContattoResponse::getId));
+            groups.add(new DuplicateGroup(minScore[root], List.copyOf(contatti)));
+        });
+        groups.sort(Comparator.comparing(g -> g.getContatti().get(0).getId()));
+        return groups;
+    }
+
+    private static int find(int[] parent, int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+
+    static final class Entry {
+        final ContattoResponse contatto;
+        final String nome;
+        final String cognome;
+        final String phoneticNome;
+        final String phoneticCognome;
+        final String telefono;
+        final String email;
+        final String sortKey;
+
+        Entry(ContattoResponse contatto) {
+            this.contatto = contatto;
+            this.nome = TextNormalizer.normalize(contatto.getNome());
+            this.cognome = TextNormalizer.normalize(contatto.getCognome());
+            this.phoneticNome = PhoneticKey.of(nome);
+            this.phoneticCognome = PhoneticKey.of(cognome);
+            this.telefono = TextNormalizer.normalizeTelefono(contatto.getTelefono());
+            this.email = TextNormalizer.normalizeEmail(contatto.getEmail());
+            this.sortKey = cognome + ' ' + nome;
+        }
+    }
+
+    private record Match(int a, int b, double score) {
+    }
+
+    /** Assegna ogni contatto ai suoi blocchi man mano che arriva dal cursore. */
+    private static final class Blocking {
+        private final List<Entry> entries = new ArrayList<>();
+        private final Map<String, IntList> blocks = new HashMap<>();
+
+        void add(ContattoResponse contatto) {
+            Entry e = new Entry(contatto);
+            int i = entries.size();
+            entries.add(e);
+            if (!e.phoneticCognome.isEmpty()) {
+                block("c:" + e.phoneticCognome, i);
+            }
+            if (!e.phoneticNome.isEmpty() && !e.phoneticCognome.isEmpty()) {
+                String pair = e.phoneticNome.compareTo(e.phoneticCognome) < 0
+                        ? e.phoneticNome + "|" + e.phoneticCognome
+                        : e.phoneticCognome + "|" + e.phoneticNome;
+                block("n:" + pair, i);
+            }
+            if (e.telefono != null) {
+                block("t:" + e.telefono, i);
+            }
+            if (e.email != null) {
+                block("e:" + e.email, i);
+            }
+        }
+
+        private void block(String key, int i) {
+            blocks.computeIfAbsent(key, k -> new IntList()).add(i);
+        }
+
+        /** Blocchi con almeno due contatti; la mappa delle chiavi viene poi liberata. */
+        List<int[]> blocks() {
+            List<int[]> result = new ArrayList<>();
+            for (IntList block : blocks.values()) {
+                if (block.size > 1) {
+                    result.add(block.toArray());
+                }
+            }
+            blocks.clear();
+            return result;
+        }
+    }
+
+    private static final class IntList {
+        private int[] values = new int[2];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.rubrica.dedup;
+
+import com.example.rubrica.search.TextNormalizer;
+
+/**
+ * Chiave fonetica semplificata per nomi italiani, usata solo per il blocking: prima lettera più
+ * consonanti, con c/k/q, s/z/x e le doppie unificate e la h muta ignorata. "Rossi", "Rosi" e
+ * "ROSSI" hanno la stessa chiave; "Bianchi" e "Bianki" anche.
+ */
+final class PhoneticKey {
+
+    static final int MAX_LENGTH = 6;
+
+    private PhoneticKey() {
+    }
+
+    static String of(String value) {
+        String text = TextNormalizer.normalize(value);
+        StringBuilder key = new StringBuilder(MAX_LENGTH);
+        char last = 0;
+        for (int i = 0; i < text.length() && key.length() < MAX_LENGTH; i++) {
+            char c = text.charAt(i);
+            if (c < 'a' || c > 'z' || c == 'h') {
+                continue;
+            }
+            char next = i + 1 < text.length() ? text.charAt(i + 1) : 0;
+            char mapped = switch (c) {
+                case 'c', 'k', 'q' -> 'k';
+                case 's', 'z', 'x' -> 's';
+                case 'j', 'y' -> 'i';
+                case 'w' -> 'v';
+                case 'p' -> next == 'h' ? 'f' : 'p';
+                default -> c;
+            };
+            boolean vowel = "aeiou".indexOf(mapped) >= 0;
+            if (key.isEmpty()) {
+                key.append(mapped);
+            } else if (!vowel && mapped != last) {
+                key.append(mapped);
+            }
+            // una vocale separa due consonanti uguali, che restano entrambe
+            last = vowel ? 0 : mapped;
+        }
+        return key.toString();
+    }
+}
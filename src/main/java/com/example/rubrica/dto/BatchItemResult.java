@@ -0,0 +1,30 @@
+package com.example.rubrica.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.Value;
+
+/**
+ * Esito di un singolo elemento di un'operazione batch, con lo status HTTP che avrebbe avuto la
+ * chiamata singola equivalente.
+ */
+@Value
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchItemResult {
+    private Long id;
+    private int status;
+    private ContattoResponse contatto;
+    private String error;
+
+    public static BatchItemResult ok(ContattoResponse contatto) {
+        return new BatchItemResult(contatto.getId(), 200, contatto, null);
+    }
+
+    public static BatchItemResult deleted(Long id) {
+        return new BatchItemResult(id, 204, null, null);
+    }
+
+    public static BatchItemResult error(Long id, int status, String error) {
+        return new BatchItemResult(id, status, null, error);
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.rubrica.dto;
+
+import java.util.List;
+
+import lombok.Value;
+
+@Value
+public class BulkImportReport {
+    private long totalRows;
+    private long imported;
+    private long rejected;
+    private long elapsedMillis;
+    private double rowsPerSecond;
+    private List<RowError> errors;
+    private boolean errorsTruncated;
+
+    @Value
+    public static class RowError {
+        private long row;
+        private List<String> messages;
+    }
+}
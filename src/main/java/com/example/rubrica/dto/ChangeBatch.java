@@ -0,0 +1,13 @@
+package com.example.rubrica.dto;
+
+import java.util.List;
+
+import lombok.Value;
+
+@Value
+public class ChangeBatch {
+    private List<ContattoChangeResponse> changes;
+    /** Token dell'ultima modifica restituita, o quello ricevuto se non ce ne sono. */
+    private String nextToken;
+    private boolean hasMore;
+}
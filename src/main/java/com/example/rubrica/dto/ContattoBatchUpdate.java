@@ -0,0 +1,13 @@
+package com.example.rubrica.dto;
+
+import lombok.Data;
+
+@Data
+public class ContattoBatchUpdate {
+
+    private Long id;
+    /** Versione attesa, come If-Match sul singolo PUT; se assente non viene controllata. */
+    private Long version;
+    private ContattoRequest contatto;
+
+}
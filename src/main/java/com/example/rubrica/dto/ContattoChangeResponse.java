@@ -0,0 +1,18 @@
+package com.example.rubrica.dto;
+
+import java.time.Instant;
+
+import com.example.rubrica.service.event.ContattoEvent;
+
+import lombok.Value;
+
+@Value
+public class ContattoChangeResponse {
+    /** Token da passare come {@code since} per ripartire subito dopo questa modifica. */
+    private String token;
+    private ContattoEvent.Type type;
+    private Long id;
+    /** {@code null} per le cancellazioni. */
+    private ContattoResponse contatto;
+    private Instant changedAt;
+}
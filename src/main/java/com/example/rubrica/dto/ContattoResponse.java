@@ -1,15 +1,14 @@
 package com.example.rubrica.dto;
 
-import lombok.AllArgsConstructor;
-import lombok.Data;
+import lombok.Value;
 
-@Data
-@AllArgsConstructor
+@Value
 public class ContattoResponse {
     private Long id;
     private String nome;
     private String cognome;
     private String telefono;
     private String email;
+    private Long version;
 
 }
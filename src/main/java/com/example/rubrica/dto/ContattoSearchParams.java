@@ -0,0 +1,31 @@
+package com.example.rubrica.dto;
+
+import com.example.rubrica.search.ContattoQuery;
+import com.example.rubrica.search.MatchMode;
+
+import lombok.Data;
+
+/** Filtri di ricerca ricevuti come query string; quelli assenti o vuoti vengono ignorati. */
+@Data
+public class ContattoSearchParams {
+
+    private String nome;
+    private String cognome;
+    private String email;
+    private String telefono;
+    /** Testo libero: ogni parola deve comparire in nome, cognome o email. */
+    private String q;
+    /** exact, prefix o contains; se assente vale il default dell'endpoint. */
+    private String match;
+
+    public ContattoQuery toQuery(MatchMode defaultMode) {
+        MatchMode mode = match == null || match.isBlank() ? defaultMode : MatchMode.fromParam(match);
+        return ContattoQuery.builder(mode)
+                .nome(nome)
+                .cognome(cognome)
+                .email(email)
+                .telefono(telefono)
+                .testo(q)
+                .build();
+    }
+}
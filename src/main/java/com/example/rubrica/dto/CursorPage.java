@@ -0,0 +1,13 @@
+package com.example.rubrica.dto;
+
+import java.util.List;
+
+import lombok.Value;
+
+@Value
+public class CursorPage<T> {
+    private List<T> content;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor;
+}
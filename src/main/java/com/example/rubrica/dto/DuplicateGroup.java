@@ -0,0 +1,12 @@
+package com.example.rubrica.dto;
+
+import java.util.List;
+
+import lombok.Value;
+
+@Value
+public class DuplicateGroup {
+    /** Punteggio più basso tra le coppie che hanno unito il gruppo. */
+    private double score;
+    private List<ContattoResponse> contatti;
+}
@@ -0,0 +1,107 @@
+package com.example.rubrica.encoding;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.springframework.data.domain.Page;
+
+import com.example.rubrica.dto.ContattoResponse;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * Lista di contatti in formato colonnare: un array per campo invece di un oggetto per contatto, così
+ * i nomi dei campi compaiono una volta sola. Nome e cognome, che si ripetono molto, sono codificati
+ * a dizionario (valori distinti + indici, -1 per i valori assenti):
+ *
+ * <pre>
+ * {"count":2,
+ *  "id":[1,2], "version":[0,3],
+ *  "nome":{"dict":["Mario"],"codes":[0,0]}, "cognome":{"dict":["Rossi","Verdi"],"codes":[0,1]},
+ *  "telefono":["333...","347..."], "email":["...","..."],
+ *  "page":{"number":0,"size":20,"totalElements":2,"totalPages":1}}
+ * </pre>
+ *
+ * {@code page} è presente solo per le risposte paginate. Il generatore può essere JSON o CBOR.
+ */
+public final class ColumnarContattoWriter {
+
+    private ColumnarContattoWriter() {
+    }
+
+    public static void write(JsonGenerator gen, List<ContattoResponse> contatti, Page<?> page) throws IOException {
+        gen.writeStartObject();
+        gen.writeNumberField("count", contatti.size());
+
+        gen.writeArrayFieldStart("id");
+        for (ContattoResponse c : contatti) {
+            writeNumber(gen, c.getId());
+        }
+        gen.writeEndArray();
+        gen.writeArrayFieldStart("version");
+        for (ContattoResponse c : contatti) {
+            writeNumber(gen, c.getVersion());
+        }
+        gen.writeEndArray();
+
+        writeDictionary(gen, "nome", contatti, ContattoResponse::getNome);
+        writeDictionary(gen, "cognome", contatti, ContattoResponse::getCognome);
+        writeStrings(gen, "telefono", contatti, ContattoResponse::getTelefono);
+        writeStrings(gen, "email", contatti, ContattoResponse::getEmail);
+
+        if (page != null) {
+            gen.writeObjectFieldStart("page");
+            gen.writeNumberField("number", page.getNumber());
+            gen.writeNumberField("size", page.getSize());
+            gen.writeNumberField("totalElements", page.getTotalElements());
+            gen.writeNumberField("totalPages", page.getTotalPages());
+            gen.writeEndObject();
+        }
+        gen.writeEndObject();
+    }
+
+    private static void writeDictionary(JsonGenerator gen, String field, List<ContattoResponse> contatti,
+            Function<ContattoResponse, String> accessor) throws IOException {
+        Map<String, Integer> codes = new HashMap<>();
+        int[] encoded = new int[contatti.size()];
+        gen.writeObjectFieldStart(field);
+        gen.writeArrayFieldStart("dict");
+        for (int i = 0; i < encoded.length; i++) {
+            String value = accessor.apply(contatti.get(i));
+            if (value == null) {
+                encoded[i] = -1;
+                continue;
+            }
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = codes.size();
+                codes.put(value, code);
+                gen.writeString(value);
+            }
+            encoded[i] = code;
+        }
+        gen.writeEndArray();
+        gen.writeFieldName("codes");
+        gen.writeArray(encoded, 0, encoded.length);
+        gen.writeEndObject();
+    }
+
+    private static void writeStrings(JsonGenerator gen, String field, List<ContattoResponse> contatti,
+            Function<ContattoResponse, String> accessor) throws IOException {
+        gen.writeArrayFieldStart(field);
+        for (ContattoResponse c : contatti) {
+            gen.writeString(accessor.apply(c));
+        }
+        gen.writeEndArray();
+    }
+
+    private static void writeNumber(JsonGenerator gen, Long value) throws IOException {
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeNumber(value);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.rubrica.encoding;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.data.domain.Page;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import com.example.rubrica.dto.ContattoResponse;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * Scrive liste e pagine di {@link ContattoResponse} nel formato di {@link ColumnarContattoWriter}
+ * quando il client lo chiede con {@code Accept}. Solo in uscita.
+ * <p>
+ * La variante JSON sta davanti al converter Jackson, che altrimenti la scriverebbe come JSON normale
+ * (accetta {@code application/*+json}), ma non si annuncia tra i tipi producibili: li copre già
+ * Jackson, e comparire prima di {@code application/json} farebbe scegliere il colonnare a chi manda
+ * {@code Accept: *}{@code /*}. La variante CBOR sta in coda e si annuncia normalmente.
+ */
+public class ColumnarHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    public static final MediaType COLUMNAR_JSON = MediaType.parseMediaType("application/vnd.rubrica.columnar+json");
+    public static final MediaType COLUMNAR_CBOR = MediaType.parseMediaType("application/vnd.rubrica.columnar+cbor");
+
+    private final JsonFactory factory;
+    private final boolean json;
+
+    public ColumnarHttpMessageConverter(JsonFactory factory, MediaType mediaType) {
+        super(mediaType);
+        this.factory = factory;
+        this.json = "json".equals(mediaType.getSubtypeSuffix());
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        if (mediaType == null ? json : !canWrite(mediaType)) {
+            return false;
+        }
+        ResolvableType resolved = type != null ? ResolvableType.forType(type) : ResolvableType.forClass(clazz);
+        if (resolved.asCollection() != ResolvableType.NONE) {
+            return resolved.asCollection().resolveGeneric(0) == ContattoResponse.class;
+        }
+        ResolvableType page = resolved.as(Page.class);
+        return page != ResolvableType.NONE && page.resolveGeneric(0) == ContattoResponse.class;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return Collection.class.isAssignableFrom(clazz) || Page.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    protected void writeInternal(Object body, Type type, HttpOutputMessage outputMessage) throws IOException {
+        List<ContattoResponse> contatti = new ArrayList<>();
+        Page<?> page = null;
+        if (body instanceof Page<?> p) {
+            page = p;
+            p.forEach(c -> contatti.add((ContattoResponse) c));
+        } else {
+            ((Collection<?>) body).forEach(c -> contatti.add((ContattoResponse) c));
+        }
+        try (JsonGenerator gen = factory.createGenerator(outputMessage.getBody(), JsonEncoding.UTF8)) {
+            ColumnarContattoWriter.write(gen, contatti, page);
+        }
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Formato colonnare solo in uscita", inputMessage);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Formato colonnare solo in uscita", inputMessage);
+    }
+}
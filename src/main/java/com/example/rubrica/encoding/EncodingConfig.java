@@ -0,0 +1,61 @@
+package com.example.rubrica.encoding;
+
+import java.util.List;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * Formati alternativi al JSON scelti dal client con {@code Accept}: CBOR ({@code application/cbor}),
+ * Smile ({@code application/x-jackson-smile}) e il formato colonnare di {@link ColumnarContattoWriter}
+ * in JSON o CBOR. I mapper binari partono dalla stessa configurazione Jackson dell'applicazione.
+ * Con la compressione attiva, {@link SmallResponseBufferingFilter} fa rispettare a Tomcat la soglia
+ * minima anche per le risposte scritte dai message converter.
+ */
+@Configuration
+public class EncodingConfig implements WebMvcConfigurer {
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+
+    @Bean
+    @ConditionalOnProperty("server.compression.enabled")
+    public FilterRegistrationBean<SmallResponseBufferingFilter> smallResponseBufferingFilter(ServerProperties server) {
+        FilterRegistrationBean<SmallResponseBufferingFilter> registration = new FilterRegistrationBean<>(
+                new SmallResponseBufferingFilter((int) server.getCompression().getMinResponseSize().toBytes()));
+        // esterno a tutti gli altri filtri, così anche l'access log in debug scrive nel buffer
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        int json = 0;
+        while (json < converters.size() && !(converters.get(json) instanceof MappingJackson2HttpMessageConverter)) {
+            json++;
+        }
+        converters.add(json, new ColumnarHttpMessageConverter(new JsonFactory(), ColumnarHttpMessageConverter.COLUMNAR_JSON));
+        converters.add(new ColumnarHttpMessageConverter(new CBORFactory(), ColumnarHttpMessageConverter.COLUMNAR_CBOR));
+    }
+}
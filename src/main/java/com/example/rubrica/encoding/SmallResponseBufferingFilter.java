@@ -0,0 +1,207 @@
+package com.example.rubrica.encoding;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+/**
+ * Trattiene le risposte fino a {@code server.compression.min-response-size} e, se finiscono entro
+ * quella soglia, le invia con {@code Content-Length}. Senza, i message converter svuotano lo stream
+ * prima della fine, Tomcat manda la risposta in chunked e la comprime a qualunque dimensione: la
+ * soglia vale solo per le risposte di lunghezza nota.
+ * <p>
+ * Oltre la soglia il contenuto trattenuto viene scritto e il resto passa direttamente. Le scritture
+ * con l'elaborazione asincrona avviata (streaming, SSE) non vengono mai trattenute.
+ */
+public class SmallResponseBufferingFilter extends OncePerRequestFilter {
+
+    private final int threshold;
+
+    public SmallResponseBufferingFilter(int threshold) {
+        this.threshold = threshold;
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        // nel dispatch asincrono arriva la risposta passata a startAsync, già avvolta
+        BufferingResponse existing = WebUtils.getNativeResponse(response, BufferingResponse.class);
+        BufferingResponse responseToUse = existing != null ? existing : new BufferingResponse(response, request);
+
+        chain.doFilter(request, existing != null ? response : responseToUse);
+        if (!request.isAsyncStarted()) {
+            responseToUse.finish();
+        } else {
+            responseToUse.asyncStarted();
+        }
+    }
+
+    private final class BufferingResponse extends HttpServletResponseWrapper {
+
+        private final HttpServletRequest request;
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        private boolean passThrough;
+        private boolean flushRequested;
+        private ServletOutputStream outputStream;
+        private PrintWriter writer;
+
+        BufferingResponse(HttpServletResponse response, HttpServletRequest request) {
+            super(response);
+            this.request = request;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() {
+            if (outputStream == null) {
+                outputStream = new BufferingOutputStream();
+            }
+            return outputStream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                writer = new PrintWriter(new OutputStreamWriter(getOutputStream(), getCharacterEncoding()));
+            }
+            return writer;
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (passThrough) {
+                super.flushBuffer();
+            } else {
+                flushRequested = true;
+            }
+        }
+
+        @Override
+        public void resetBuffer() {
+            buffer.reset();
+            super.resetBuffer();
+        }
+
+        @Override
+        public void reset() {
+            buffer.reset();
+            super.reset();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            buffer.reset();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            buffer.reset();
+            super.sendError(sc);
+        }
+
+        /** Stream su cui scrivere {@code length} byte: quello vero, o {@code null} se restano nel buffer. */
+        private ServletOutputStream target(int length) throws IOException {
+            if (!passThrough && (request.isAsyncStarted() || buffer.size() + length >= threshold)) {
+                drain();
+            }
+            return passThrough ? getResponse().getOutputStream() : null;
+        }
+
+        private void drain() throws IOException {
+            passThrough = true;
+            if (buffer.size() > 0) {
+                buffer.writeTo(getResponse().getOutputStream());
+                buffer.reset();
+            }
+        }
+
+        /**
+         * Fine del primo dispatch con l'elaborazione asincrona avviata: chi ha già chiesto un flush (SSE)
+         * deve ricevere subito gli header, il resto aspetta l'ultimo dispatch.
+         */
+        void asyncStarted() throws IOException {
+            if (flushRequested) {
+                drain();
+                getResponse().flushBuffer();
+            }
+        }
+
+        void finish() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            if (!passThrough && buffer.size() > 0 && !isCommitted()) {
+                setContentLength(buffer.size());
+            }
+            drain();
+        }
+
+        private final class BufferingOutputStream extends ServletOutputStream {
+
+            @Override
+            public void write(int b) throws IOException {
+                ServletOutputStream target = target(1);
+                if (target != null) {
+                    target.write(b);
+                } else {
+                    buffer.write(b);
+                }
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                ServletOutputStream target = target(len);
+                if (target != null) {
+                    target.write(b, off, len);
+                } else {
+                    buffer.write(b, off, len);
+                }
+            }
+
+            @Override
+            public void flush() throws IOException {
+                // finché la risposta è nel buffer il flush è rimandato alla fine
+                if (passThrough) {
+                    getResponse().getOutputStream().flush();
+                } else {
+                    flushRequested = true;
+                }
+            }
+
+            @Override
+            public boolean isReady() {
+                try {
+                    return getResponse().getOutputStream().isReady();
+                } catch (IOException e) {
+                    return false;
+                }
+            }
+
+            @Override
+            public void setWriteListener(WriteListener listener) {
+                try {
+                    getResponse().getOutputStream().setWriteListener(listener);
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        }
+    }
+}
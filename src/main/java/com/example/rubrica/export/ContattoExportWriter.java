@@ -0,0 +1,116 @@
+package com.example.rubrica.export;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+import com.example.rubrica.dto.ContattoResponse;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Scrive i contatti uno alla volta sull'output stream nel formato richiesto, senza mai
+ * tenere in memoria l'intera lista.
+ */
+public abstract class ContattoExportWriter implements Closeable {
+
+    public static ContattoExportWriter create(ExportFormat format, OutputStream out, ObjectMapper objectMapper)
+            throws IOException {
+        return switch (format) {
+            case NDJSON -> new JsonWriter(objectMapper, out, false);
+            case JSON -> new JsonWriter(objectMapper, out, true);
+            case CSV -> new CsvWriter(out);
+        };
+    }
+
+    public abstract void write(ContattoResponse contatto);
+
+    private static final class JsonWriter extends ContattoExportWriter {
+
+        private final JsonGenerator generator;
+        private final boolean array;
+
+        JsonWriter(ObjectMapper objectMapper, OutputStream out, boolean array) throws IOException {
+            this.generator = objectMapper.getFactory().createGenerator(out)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            this.array = array;
+            if (array) {
+                generator.writeStartArray();
+            } else {
+                generator.setRootValueSeparator(new SerializedString("\n"));
+            }
+        }
+
+        @Override
+        public void write(ContattoResponse contatto) {
+            try {
+                generator.writeObject(contatto);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (array) {
+                generator.writeEndArray();
+            } else {
+                generator.writeRaw('\n');
+            }
+            generator.close();
+        }
+    }
+
+    private static final class CsvWriter extends ContattoExportWriter {
+
+        private final Writer writer;
+
+        CsvWriter(OutputStream out) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            writer.write("id,nome,cognome,telefono,email\n");
+        }
+
+        @Override
+        public void write(ContattoResponse contatto) {
+            try {
+                writer.write(String.valueOf(contatto.getId()));
+                writer.write(',');
+                writeField(contatto.getNome());
+                writer.write(',');
+                writeField(contatto.getCognome());
+                writer.write(',');
+                writeField(contatto.getTelefono());
+                writer.write(',');
+                writeField(contatto.getEmail());
+                writer.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void writeField(String value) throws IOException {
+            if (value == null) {
+                return;
+            }
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0
+                    && value.indexOf('\r') < 0) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.flush();
+        }
+    }
+}
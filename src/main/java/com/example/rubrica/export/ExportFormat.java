@@ -0,0 +1,75 @@
+package com.example.rubrica.export;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.springframework.http.MediaType;
+import org.springframework.util.MimeTypeUtils;
+
+public enum ExportFormat {
+
+    NDJSON("application/x-ndjson", "ndjson"),
+    JSON(MediaType.APPLICATION_JSON_VALUE, "json"),
+    CSV("text/csv", "csv");
+
+    private final MediaType mediaType;
+    private final String extension;
+
+    ExportFormat(String mediaType, String extension) {
+        this.mediaType = MediaType.parseMediaType(mediaType);
+        this.extension = extension;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public static ExportFormat fromParam(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Formato di export non supportato: " + value);
+        }
+    }
+
+    public static ExportFormat fromMediaType(MediaType mediaType) {
+        ExportFormat format = find(mediaType);
+        if (format == null) {
+            throw new IllegalArgumentException("Formato di export non supportato: " + mediaType);
+        }
+        return format;
+    }
+
+    /**
+     * Formato preferito tra quelli dell'header {@code Accept}, nell'ordine di qualità e specificità;
+     * {@code *}{@code /*} e l'header assente valgono NDJSON. {@code null} se nessun formato è accettabile.
+     */
+    public static ExportFormat fromAccept(List<MediaType> accepted) {
+        if (accepted.isEmpty()) {
+            return NDJSON;
+        }
+        List<MediaType> sorted = new ArrayList<>(accepted);
+        MimeTypeUtils.sortBySpecificity(sorted);
+        for (MediaType mediaType : sorted) {
+            ExportFormat format = mediaType.getQualityValue() > 0 ? find(mediaType) : null;
+            if (format != null) {
+                return format;
+            }
+        }
+        return null;
+    }
+
+    private static ExportFormat find(MediaType mediaType) {
+        for (ExportFormat format : values()) {
+            if (format.mediaType.isCompatibleWith(mediaType)) {
+                return format;
+            }
+        }
+        return null;
+    }
+}
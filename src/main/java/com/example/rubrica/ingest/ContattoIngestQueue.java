@@ -0,0 +1,218 @@
+package com.example.rubrica.ingest;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.example.rubrica.dto.ContattoRequest;
+import com.example.rubrica.dto.ContattoResponse;
+import com.example.rubrica.mapper.ContattoMapper;
+import com.example.rubrica.model.Contatto;
+import com.example.rubrica.service.ContattoService;
+import com.example.rubrica.tenant.TenantContext;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Inserimenti in write-behind: le richieste già validate entrano in una coda lock-free limitata e un
+ * unico thread le scrive a blocchi, una transazione per blocco (group commit). Ogni richiesta riceve
+ * un future completato solo dopo il commit del proprio blocco.
+ * <p>
+ * Il blocco parte appena raggiunge {@code batch-size} righe o quando scade {@code linger} dalla prima;
+ * con coda piena {@link #submit} rifiuta subito invece di bloccare il chiamante. Se il commit di un
+ * blocco fallisce le sue righe vengono ritentate una per volta, così una riga non valida non fa
+ * fallire le altre. Ogni richiesta porta con sé il tenant di chi l'ha accodata; un blocco con più tenant
+ * viene scritto con una transazione per tenant.
+ */
+@Component
+@EnableConfigurationProperties(IngestProperties.class)
+public class ContattoIngestQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(ContattoIngestQueue.class);
+
+    private final ContattoService service;
+    private final ContattoMapper mapper;
+    private final IngestProperties properties;
+
+    private final Queue<Pending> queue = new ConcurrentLinkedQueue<>();
+    /** Richieste accodate e non ancora prese dal writer; fa da limite alla coda. */
+    private final AtomicInteger depth = new AtomicInteger();
+
+    private final Timer commitTimer;
+    private final DistributionSummary batchSizes;
+    private final Counter rejected;
+
+    private volatile Thread writer;
+    private volatile boolean running;
+
+    public ContattoIngestQueue(ContattoService service, ContattoMapper mapper, IngestProperties properties,
+            MeterRegistry registry) {
+        this.service = service;
+        this.mapper = mapper;
+        this.properties = properties;
+        Gauge.builder("rubrica.ingest.queue.depth", depth, AtomicInteger::get)
+                .description("Inserimenti in attesa di essere scritti")
+                .register(registry);
+        this.commitTimer = Timer.builder("rubrica.ingest.commit")
+                .description("Durata della transazione di un blocco")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(registry);
+        this.batchSizes = DistributionSummary.builder("rubrica.ingest.batch.size")
+                .description("Righe per blocco")
+                .register(registry);
+        this.rejected = Counter.builder("rubrica.ingest.rejected")
+                .description("Inserimenti rifiutati per coda piena")
+                .register(registry);
+    }
+
+    /** Vero dopo l'avvio se {@code rubrica.ingest.enabled}; altrimenti gli inserimenti restano sincroni. */
+    public boolean isRunning() {
+        return running;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!properties.isEnabled() || writer != null) {
+            return;
+        }
+        running = true;
+        writer = Thread.ofPlatform().name("rubrica-ingest").daemon().start(this::drain);
+        log.info("Inserimenti in write-behind: capacità {}, blocchi da {}, linger {} ms", properties.getCapacity(),
+                properties.getBatchSize(), properties.getLinger().toMillis());
+    }
+
+    /**
+     * Accoda un inserimento.
+     *
+     * @return future completato con il contatto salvato dopo il commit, oppure {@code null} se la coda
+     *         è piena
+     */
+    public CompletableFuture<ContattoResponse> submit(ContattoRequest request) {
+        if (!running) {
+            throw new IllegalStateException("Coda di inserimento non attiva");
+        }
+        if (depth.incrementAndGet() > properties.getCapacity()) {
+            depth.decrementAndGet();
+            rejected.increment();
+            return null;
+        }
+        Pending pending = new Pending(TenantContext.current(), request, new CompletableFuture<>());
+        queue.add(pending);
+        LockSupport.unpark(writer);
+        return pending.future();
+    }
+
+    public int getDepth() {
+        return depth.get();
+    }
+
+    /** Smette di accettare richieste e scrive quelle già accodate prima di chiudere. */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        Thread current = writer;
+        if (current == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(current);
+        current.join(TimeUnit.SECONDS.toMillis(30));
+    }
+
+    private void drain() {
+        List<Pending> batch = new ArrayList<>(properties.getBatchSize());
+        while (running || !queue.isEmpty()) {
+            Pending first = queue.poll();
+            if (first == null) {
+                LockSupport.park(this);
+                continue;
+            }
+            batch.add(first);
+            fill(batch);
+            depth.addAndGet(-batch.size());
+            byTenant(batch).forEach((tenant, rows) -> TenantContext.runAs(tenant, () -> write(rows)));
+            batch.clear();
+        }
+    }
+
+    private void fill(List<Pending> batch) {
+        long deadline = System.nanoTime() + properties.getLinger().toNanos();
+        while (batch.size() < properties.getBatchSize()) {
+            Pending next = queue.poll();
+            if (next != null) {
+                batch.add(next);
+                continue;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0 || !running) {
+                return;
+            }
+            LockSupport.parkNanos(this, remaining);
+        }
+    }
+
+    private static Map<String, List<Pending>> byTenant(List<Pending> batch) {
+        String tenant = batch.get(0).tenant();
+        if (batch.stream().allMatch(p -> p.tenant().equals(tenant))) {
+            return Map.of(tenant, batch);
+        }
+        Map<String, List<Pending>> groups = new LinkedHashMap<>();
+        for (Pending pending : batch) {
+            groups.computeIfAbsent(pending.tenant(), t -> new ArrayList<>()).add(pending);
+        }
+        return groups;
+    }
+
+    private void write(List<Pending> batch) {
+        List<Contatto> entities = batch.stream().map(p -> mapper.toEntity(p.request())).toList();
+        long start = System.nanoTime();
+        List<Contatto> saved;
+        try {
+            saved = service.insertAll(entities);
+        } catch (RuntimeException e) {
+            log.warn("Commit di un blocco di {} contatti fallito, ritento uno per volta: {}", batch.size(),
+                    e.getMessage());
+            writeOneByOne(batch);
+            return;
+        } finally {
+            commitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        batchSizes.record(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).future().complete(mapper.toResponse(saved.get(i)));
+        }
+    }
+
+    private void writeOneByOne(List<Pending> batch) {
+        for (Pending pending : batch) {
+            try {
+                // entity nuova: id e versione assegnati nella transazione annullata non valgono più
+                Contatto saved = service.insertContatto(mapper.toEntity(pending.request()));
+                pending.future().complete(mapper.toResponse(saved));
+            } catch (RuntimeException e) {
+                pending.future().completeExceptionally(e);
+            }
+        }
+    }
+
+    private record Pending(String tenant, ContattoRequest request, CompletableFuture<ContattoResponse> future) {
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.rubrica.ingest;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties("rubrica.ingest")
+public class IngestProperties {
+
+    /** Se attivo, {@code POST /api/contatti} accoda l'inserimento invece di eseguirlo nella richiesta. */
+    private boolean enabled = false;
+
+    /** Inserimenti in attesa oltre i quali le nuove richieste ricevono 429. */
+    private int capacity = 10_000;
+
+    /** Righe massime per transazione. */
+    private int batchSize = 200;
+
+    /** Attesa massima, dopo la prima richiesta, per riempire un blocco prima del commit. */
+    private Duration linger = Duration.ofMillis(5);
+}
@@ -26,7 +26,7 @@ public class ContattoMapper {
             return null;
         } else {
             return new ContattoResponse(entity.getId(), entity.getNome(), entity.getCognome(), entity.getTelefono(),
-                    entity.getEmail());
+                    entity.getEmail(), entity.getVersion());
         }
     }
 
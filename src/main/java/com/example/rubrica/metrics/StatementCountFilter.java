@@ -0,0 +1,107 @@
+package com.example.rubrica.metrics;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Registra il numero di istruzioni SQL eseguite per richiesta ({@code rubrica.http.statements}),
+ * per endpoint: un valore che cresce con i dati indica un N+1.
+ * <p>
+ * Le richieste asincrone vengono registrate al dispatch finale. Il contatore resta nella richiesta e
+ * segue il lavoro sugli altri thread: i task {@code Callable} e {@code StreamingResponseBody} tramite
+ * {@link #callableInterceptor()}, le continuazioni dei {@code CompletableFuture} tramite
+ * {@link StatementCounter#counted}. Gli stream SSE restano aperti a tempo indeterminato e non hanno un
+ * numero di istruzioni per richiesta, quindi sono esclusi dalla metrica; gli inserimenti della coda
+ * write-behind sono raggruppati tra più richieste e non vengono contati.
+ */
+class StatementCountFilter extends OncePerRequestFilter {
+
+    static final String METRIC = "rubrica.http.statements";
+
+    private static final String COUNTER_ATTRIBUTE = StatementCountFilter.class.getName() + ".COUNTER";
+
+    private final MeterRegistry registry;
+    private final Map<String, DistributionSummary> summaries = new ConcurrentHashMap<>();
+
+    StatementCountFilter(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        AtomicInteger counter = (AtomicInteger) request.getAttribute(COUNTER_ATTRIBUTE);
+        if (counter == null) {
+            counter = StatementCounter.start();
+            request.setAttribute(COUNTER_ATTRIBUTE, counter);
+        } else {
+            StatementCounter.bind(counter);
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            StatementCounter.stop();
+            if (!isAsyncStarted(request) && !isEventStream(response)) {
+                record(request, counter.get());
+            }
+        }
+    }
+
+    /** Lega il contatore della richiesta ai task asincroni di Spring MVC, sul thread che li esegue. */
+    static CallableProcessingInterceptor callableInterceptor() {
+        return new CallableProcessingInterceptor() {
+            @Override
+            public <T> void preProcess(NativeWebRequest request, Callable<T> task) {
+                StatementCounter.bind(
+                        (AtomicInteger) request.getAttribute(COUNTER_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST));
+            }
+
+            @Override
+            public <T> void postProcess(NativeWebRequest request, Callable<T> task, Object concurrentResult) {
+                StatementCounter.stop();
+            }
+        };
+    }
+
+    private static boolean isEventStream(HttpServletResponse response) {
+        String contentType = response.getContentType();
+        return contentType != null && contentType.startsWith(MediaType.TEXT_EVENT_STREAM_VALUE);
+    }
+
+    private void record(HttpServletRequest request, int statements) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern == null ? "UNKNOWN" : pattern.toString();
+        summaries.computeIfAbsent(request.getMethod() + ' ' + uri, key -> summary(request.getMethod(), uri))
+                .record(statements);
+    }
+
+    private DistributionSummary summary(String method, String uri) {
+        return DistributionSummary.builder(METRIC)
+                .description("Istruzioni SQL eseguite per richiesta")
+                .tag("method", method)
+                .tag("uri", uri)
+                .register(registry);
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.rubrica.metrics;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Conta le istruzioni SQL preparate da Hibernate nel thread corrente, tra {@link #start()} e
+ * {@link #stop()}. Fuori da una richiesta HTTP non conta nulla. Il lavoro di una richiesta che passa
+ * su un altro thread si porta dietro il contatore con {@link #counted}.
+ */
+public class StatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<AtomicInteger> CURRENT = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        AtomicInteger counter = CURRENT.get();
+        if (counter != null) {
+            counter.incrementAndGet();
+        }
+        return sql;
+    }
+
+    /**
+     * Lega {@code action} al contatore della richiesta corrente: eseguita su un altro thread, le sue
+     * istruzioni vengono contate per questa richiesta. Senza contatore attivo restituisce {@code action}.
+     */
+    public static <T> Supplier<T> counted(Supplier<T> action) {
+        AtomicInteger counter = CURRENT.get();
+        if (counter == null) {
+            return action;
+        }
+        return () -> {
+            AtomicInteger previous = CURRENT.get();
+            CURRENT.set(counter);
+            try {
+                return action.get();
+            } finally {
+                bind(previous);
+            }
+        };
+    }
+
+    static AtomicInteger start() {
+        AtomicInteger counter = new AtomicInteger();
+        CURRENT.set(counter);
+        return counter;
+    }
+
+    static void bind(AtomicInteger counter) {
+        if (counter != null) {
+            CURRENT.set(counter);
+        } else {
+            CURRENT.remove();
+        }
+    }
+
+    static int stop() {
+        AtomicInteger counter = CURRENT.get();
+        CURRENT.remove();
+        return counter == null ? 0 : counter.get();
+    }
+}
@@ -1,23 +1,88 @@
 package com.example.rubrica.model;
 
+import java.time.Instant;
+
+import org.hibernate.annotations.TenantId;
+
+import com.example.rubrica.search.TextNormalizer;
+
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
-import lombok.AllArgsConstructor;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import lombok.AccessLevel;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_contatto_tenant_cognome_nome_id", columnList = "tenant_id, cognome, nome, id"),
+        @Index(name = "idx_contatto_tenant_nome", columnList = "tenant_id, nome"),
+        @Index(name = "idx_contatto_tenant_telefono_norm", columnList = "tenant_id, telefono_normalizzato"),
+        @Index(name = "idx_contatto_tenant_email_norm", columnList = "tenant_id, email_normalizzata"),
+        @Index(name = "idx_contatto_tenant_updated_at", columnList = "tenant_id, updated_at")
+})
 @Data
 @NoArgsConstructor
-@AllArgsConstructor
 public class Contatto {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "contatto_seq")
+    @SequenceGenerator(name = "contatto_seq", sequenceName = "contatto_seq", allocationSize = 50)
     private Long id;
+
+    /** Assegnato da Hibernate dal tenant della sessione; tutte le query vengono filtrate su questa colonna. */
+    @TenantId
+    @Column(nullable = false, updatable = false, length = 64)
+    @Setter(AccessLevel.NONE)
+    private String tenantId;
+
     private String nome;
     private String cognome;
     private String telefono;
     private String email;
+
+    /** Chiavi di ricerca esatta, ricavate da telefono ed email a ogni scrittura. */
+    @Setter(AccessLevel.NONE)
+    private String telefonoNormalizzato;
+    @Setter(AccessLevel.NONE)
+    private String emailNormalizzata;
+
+    /**
+     * Nome e cognome minuscoli e senza accenti, come li confronta l'indice in memoria: le ricerche
+     * parziali al database danno gli stessi risultati dell'indice.
+     */
+    @Setter(AccessLevel.NONE)
+    private String nomeNormalizzato;
+    @Setter(AccessLevel.NONE)
+    private String cognomeNormalizzato;
+
+    @Version
+    private Long version;
+    private Instant updatedAt;
+
+    public Contatto(Long id, String nome, String cognome, String telefono, String email) {
+        this.id = id;
+        this.nome = nome;
+        this.cognome = cognome;
+        this.telefono = telefono;
+        this.email = email;
+    }
+
+    @PrePersist
+    @PreUpdate
+    void beforeWrite() {
+        telefonoNormalizzato = TextNormalizer.normalizeTelefono(telefono);
+        emailNormalizzata = TextNormalizer.normalizeEmail(email);
+        nomeNormalizzato = nome == null ? null : TextNormalizer.normalize(nome);
+        cognomeNormalizzato = cognome == null ? null : TextNormalizer.normalize(cognome);
+        updatedAt = Instant.now();
+    }
 }
@@ -0,0 +1,50 @@
+package com.example.rubrica.model;
+
+import java.time.Instant;
+
+import org.hibernate.annotations.TenantId;
+
+import com.example.rubrica.service.event.ContattoEvent;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Riga del change log: una per ogni inserimento, modifica o cancellazione di un contatto, in
+ * ordine di id. Per le cancellazioni (tombstone) i campi del contatto sono {@code null}.
+ * <p>
+ * La sequence non è pooled: con blocchi di id riservati da ogni nodo l'ordine degli id non
+ * seguirebbe più quello di assegnazione (vedi {@link ContattoChangeLock}).
+ */
+@Entity
+@Table(name = "contatto_change", indexes = @Index(name = "idx_contatto_change_tenant_id", columnList = "tenant_id, id"))
+@Data
+@NoArgsConstructor
+public class ContattoChange {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "contatto_change_seq")
+    @SequenceGenerator(name = "contatto_change_seq", sequenceName = "contatto_change_seq", allocationSize = 1)
+    private Long id;
+    @TenantId
+    @Column(nullable = false, updatable = false, length = 64)
+    private String tenantId;
+    @Enumerated(EnumType.STRING)
+    private ContattoEvent.Type tipo;
+    private Long contattoId;
+    private String nome;
+    private String cognome;
+    private String telefono;
+    private String email;
+    private Long version;
+    private Instant changedAt;
+}
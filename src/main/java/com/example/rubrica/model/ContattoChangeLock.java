@@ -0,0 +1,26 @@
+package com.example.rubrica.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Riga unica bloccata da ogni transazione che scrive nel change log, dall'assegnazione degli id fino
+ * al commit: gli id diventano visibili nello stesso ordine in cui sono stati assegnati, su tutti i
+ * nodi che condividono il database. Non appartiene a nessun tenant.
+ */
+@Entity
+@Table(name = "contatto_change_lock")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ContattoChangeLock {
+
+    public static final long ID = 1;
+
+    @Id
+    private Long id;
+}
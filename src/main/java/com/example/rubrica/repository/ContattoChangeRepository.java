@@ -0,0 +1,17 @@
+package com.example.rubrica.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import com.example.rubrica.model.ContattoChange;
+
+public interface ContattoChangeRepository extends JpaRepository<ContattoChange, Long> {
+
+    public List<ContattoChange> findByIdGreaterThanOrderByIdAsc(Long after, Limit limit);
+
+    @Query("SELECT MAX(c.id) FROM ContattoChange c")
+    public Long findHeadId();
+}
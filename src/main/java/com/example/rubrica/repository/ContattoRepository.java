@@ -1,16 +1,34 @@
 package com.example.rubrica.repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
-import org.springframework.data.domain.Page;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import com.example.rubrica.dto.ContattoResponse;
 import com.example.rubrica.model.Contatto;
 
-public interface ContattoRepository extends JpaRepository<Contatto, Long> {
+import jakarta.persistence.QueryHint;
+
+public interface ContattoRepository extends JpaRepository<Contatto, Long>, ContattoSearchRepository {
+
+    public static final String EXPORT_FETCH_SIZE = "500";
+
+    /**
+     * Constructor expression per le letture: le righe diventano direttamente {@link ContattoResponse},
+     * senza entity gestite nel persistence context né passaggio dal mapper.
+     */
+    public static final String RESPONSE = "new com.example.rubrica.dto.ContattoResponse("
+            + "c.id, c.nome, c.cognome, c.telefono, c.email, c.version)";
 
     public List<Contatto> findByNome(String nome);
 
@@ -18,11 +36,60 @@ public interface ContattoRepository extends JpaRepository<Contatto, Long> {
 
     public List<Contatto> findByNomeAndCognome(String nome, String cognome);
 
-    @Query("SELECT c FROM Contatto c WHERE LOWER(c.nome) LIKE LOWER(CONCAT('%', :nome, '%'))")
-    public List<Contatto> findByNomeLike(@Param("nome") String nome);
+    @Query("SELECT " + RESPONSE + " FROM Contatto c ORDER BY c.id")
+    public List<ContattoResponse> findAllResponses();
+
+    @Query("SELECT " + RESPONSE + " FROM Contatto c WHERE c.id = :id")
+    public Optional<ContattoResponse> findResponseById(@Param("id") Long id);
+
+    @Query("SELECT " + RESPONSE + " FROM Contatto c WHERE c.id IN :ids")
+    public List<ContattoResponse> findResponsesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT " + RESPONSE + " FROM Contatto c WHERE c.telefonoNormalizzato = :telefono ORDER BY c.id")
+    public List<ContattoResponse> findByTelefonoNormalizzato(@Param("telefono") String telefonoNormalizzato);
+
+    @Query("SELECT " + RESPONSE + " FROM Contatto c WHERE c.emailNormalizzata = :email ORDER BY c.id")
+    public List<ContattoResponse> findByEmailNormalizzata(@Param("email") String emailNormalizzata);
+
+    /** {@code nome} va normalizzato con {@code TextNormalizer.normalize}, come la colonna. */
+    @Query("SELECT " + RESPONSE + " FROM Contatto c WHERE c.nomeNormalizzato LIKE CONCAT('%', :nome, '%')")
+    public List<ContattoResponse> findByNomeLike(@Param("nome") String nome);
+
+    @Query("SELECT " + RESPONSE + " FROM Contatto c ORDER BY c.updatedAt DESC")
+    public List<ContattoResponse> findRecentlyUpdated(Limit limit);
+
+    @Query("SELECT c.id FROM Contatto c WHERE c.id IN :ids")
+    public List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * {@code nome} e {@code cognome} vanno normalizzati con {@code TextNormalizer.normalize} e poi passati a
+     * {@code TextNormalizer.escapeLike}, così {@code %} e {@code _} cercati dall'utente non fanno da jolly.
+     */
+    @Query("SELECT " + RESPONSE + " FROM Contatto c"
+            + " WHERE (:nome IS NULL OR c.nomeNormalizzato LIKE CONCAT('%', :nome, '%') ESCAPE '\\')"
+            + " AND (:cognome IS NULL OR c.cognomeNormalizzato LIKE CONCAT('%', :cognome, '%') ESCAPE '\\')"
+            + " ORDER BY c.cognome, c.nome, c.id")
+    public Slice<ContattoResponse> findFirstSlice(@Param("nome") String nome, @Param("cognome") String cognome,
+            Pageable pageable);
+
+    /** Filtri come {@link #findFirstSlice}. */
+    @Query("SELECT " + RESPONSE + " FROM Contatto c"
+            + " WHERE (:nome IS NULL OR c.nomeNormalizzato LIKE CONCAT('%', :nome, '%') ESCAPE '\\')"
+            + " AND (:cognome IS NULL OR c.cognomeNormalizzato LIKE CONCAT('%', :cognome, '%') ESCAPE '\\')"
+            + " AND (c.cognome > :afterCognome"
+            + " OR (c.cognome = :afterCognome AND (c.nome > :afterNome"
+            + " OR (c.nome = :afterNome AND c.id > :afterId))))"
+            + " ORDER BY c.cognome, c.nome, c.id")
+    public Slice<ContattoResponse> findSliceAfter(@Param("nome") String nome, @Param("cognome") String cognome,
+            @Param("afterCognome") String afterCognome, @Param("afterNome") String afterNome,
+            @Param("afterId") Long afterId, Pageable pageable);
 
-    Page<Contatto> findByNomeContainingIgnoreCase(String nome, Pageable pageable);
+    /** Tenant con almeno un contatto; ha senso solo con il tenant {@code ROOT}, che non filtra. */
+    @Query("SELECT DISTINCT c.tenantId FROM Contatto c")
+    public List<String> findTenantIds();
 
-    Page<Contatto> findByCognomeContainingIgnoreCase(String cognome, Pageable pageable);
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query("SELECT " + RESPONSE + " FROM Contatto c ORDER BY c.id")
+    public Stream<ContattoResponse> streamAll();
 
 }
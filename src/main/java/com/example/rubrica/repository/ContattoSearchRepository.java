@@ -0,0 +1,17 @@
+package com.example.rubrica.repository;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import com.example.rubrica.dto.ContattoResponse;
+import com.example.rubrica.search.ContattoQuery;
+
+public interface ContattoSearchRepository {
+
+    /**
+     * Esegue una ricerca su più campi con ordinamento e paginazione arbitrari. Il JPQL viene generato
+     * una sola volta per ogni combinazione di campi, modalità e ordinamento; le righe
+     * vengono lette direttamente come {@link ContattoResponse}.
+     */
+    Page<ContattoResponse> search(ContattoQuery query, Pageable pageable);
+}
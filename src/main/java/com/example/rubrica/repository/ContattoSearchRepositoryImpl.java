@@ -0,0 +1,157 @@
+package com.example.rubrica.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.rubrica.dto.ContattoResponse;
+import com.example.rubrica.search.ContattoQuery;
+import com.example.rubrica.search.MatchMode;
+import com.example.rubrica.search.TextNormalizer;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+
+/**
+ * Traduce una {@link ContattoQuery} in un'unica query JPQL. Il testo della query dipende solo dalla
+ * forma (campi, modalità, ordinamento) e viene compilato una volta e tenuto in cache; i valori
+ * arrivano come parametri, così anche il piano di Hibernate e lo statement preparato si riusano.
+ */
+class ContattoSearchRepositoryImpl implements ContattoSearchRepository {
+
+    private static final int MAX_PLANS = 1000;
+
+    /** Proprietà ordinabili e relativo path JPQL. */
+    private static final Map<String, String> SORTABLE = Map.of(
+            "id", "c.id",
+            "nome", "c.nome",
+            "cognome", "c.cognome",
+            "telefono", "c.telefono",
+            "email", "c.email");
+
+    private final EntityManager entityManager;
+    private final Map<PlanKey, Plan> plans = new ConcurrentHashMap<>();
+
+    ContattoSearchRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<ContattoResponse> search(ContattoQuery query, Pageable pageable) {
+        Plan plan = plan(new PlanKey(query.shape(), pageable.getSort()));
+
+        TypedQuery<ContattoResponse> select = entityManager.createQuery(plan.select(), ContattoResponse.class);
+        bind(select, query);
+        if (pageable.isPaged()) {
+            select.setFirstResult((int) pageable.getOffset());
+            select.setMaxResults(pageable.getPageSize());
+        }
+        List<ContattoResponse> content = select.getResultList();
+
+        return PageableExecutionUtils.getPage(content, pageable, () -> {
+            TypedQuery<Long> count = entityManager.createQuery(plan.count(), Long.class);
+            bind(count, query);
+            return count.getSingleResult();
+        });
+    }
+
+    private Plan plan(PlanKey key) {
+        Plan plan = plans.get(key);
+        if (plan != null) {
+            return plan;
+        }
+        plan = compile(key);
+        if (plans.size() >= MAX_PLANS) {
+            // le forme possibili sono poche: superare il limite vuol dire ordinamenti anomali
+            plans.clear();
+        }
+        plans.put(key, plan);
+        return plan;
+    }
+
+    private static Plan compile(PlanKey key) {
+        List<String> conditions = new ArrayList<>();
+        for (int i = 0; i < key.shape().size(); i++) {
+            ContattoQuery.Shape shape = key.shape().get(i);
+            String p = ":p" + i;
+            conditions.add(switch (shape.field()) {
+                case NOME -> text("c.nome", "c.nomeNormalizzato", shape.mode(), p);
+                case COGNOME -> text("c.cognome", "c.cognomeNormalizzato", shape.mode(), p);
+                case EMAIL -> normalized("c.emailNormalizzata", shape.mode(), p);
+                case TELEFONO -> normalized("c.telefonoNormalizzato", shape.mode(), p);
+                case TESTO -> "(c.nomeNormalizzato LIKE " + p + " ESCAPE '\\' OR c.cognomeNormalizzato LIKE " + p
+                        + " ESCAPE '\\' OR c.emailNormalizzata LIKE " + p + " ESCAPE '\\')";
+            });
+        }
+        String where = conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+
+        StringBuilder orderBy = new StringBuilder(" ORDER BY ");
+        boolean byId = false;
+        for (Sort.Order order : key.sort()) {
+            String path = SORTABLE.get(order.getProperty());
+            if (path == null) {
+                throw new IllegalArgumentException("Ordinamento non supportato: " + order.getProperty());
+            }
+            byId |= path.equals("c.id");
+            if (order.isIgnoreCase()) {
+                if (path.equals("c.id")) {
+                    throw new IllegalArgumentException("ignoreCase non applicabile all'ordinamento per id");
+                }
+                path = "LOWER(" + path + ")";
+            }
+            orderBy.append(path).append(order.isDescending() ? " DESC" : " ASC");
+            switch (order.getNullHandling()) {
+                case NULLS_FIRST -> orderBy.append(" NULLS FIRST");
+                case NULLS_LAST -> orderBy.append(" NULLS LAST");
+                case NATIVE -> {
+                }
+            }
+            orderBy.append(", ");
+        }
+        if (byId) {
+            orderBy.setLength(orderBy.length() - 2);
+        } else {
+            // tie-breaker: pagine stabili anche con valori duplicati
+            orderBy.append("c.id ASC");
+        }
+
+        return new Plan("SELECT " + ContattoRepository.RESPONSE + " FROM Contatto c" + where + orderBy,
+                "SELECT COUNT(c) FROM Contatto c" + where);
+    }
+
+    /** Esatto sulla colonna originale, parziale su quella normalizzata come fa l'indice in memoria. */
+    private static String text(String path, String normalizedPath, MatchMode mode, String p) {
+        return mode == MatchMode.EXACT ? path + " = " + p : normalizedPath + " LIKE " + p + " ESCAPE '\\'";
+    }
+
+    private static String normalized(String path, MatchMode mode, String p) {
+        return mode == MatchMode.EXACT ? path + " = " + p : path + " LIKE " + p + " ESCAPE '\\'";
+    }
+
+    private static void bind(TypedQuery<?> query, ContattoQuery contattoQuery) {
+        List<ContattoQuery.Filter> filters = contattoQuery.filters();
+        for (int i = 0; i < filters.size(); i++) {
+            ContattoQuery.Filter filter = filters.get(i);
+            String value = switch (filter.mode()) {
+                case EXACT -> filter.value();
+                case PREFIX -> TextNormalizer.escapeLike(filter.value()) + "%";
+                case CONTAINS -> "%" + TextNormalizer.escapeLike(filter.value()) + "%";
+            };
+            query.setParameter("p" + i, value);
+        }
+    }
+
+    private record PlanKey(List<ContattoQuery.Shape> shape, Sort sort) {
+    }
+
+    private record Plan(String select, String count) {
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.rubrica.routing;
+
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Stato di instradamento legato al thread corrente, letto da {@link ReplicaRoutingDataSource} quando
+ * una transazione prende la connessione. Senza routing attivo i metodi non hanno effetto.
+ */
+public final class DataSourceRouting {
+
+    private static final ThreadLocal<State> STATE = ThreadLocal.withInitial(State::new);
+
+    private DataSourceRouting() {
+    }
+
+    /**
+     * Esegue {@code action} leggendo dal primario anche nelle transazioni read-only: per le letture
+     * che devono vedere tutto ciò che è già committato (change log, ricostruzione di indice e cache).
+     * La transazione va aperta dentro {@code action}, oppure prima ma senza aver ancora eseguito query.
+     */
+    public static <T> T onPrimary(Supplier<T> action) {
+        State state = STATE.get();
+        state.pinned++;
+        try {
+            return action.get();
+        } finally {
+            state.pinned--;
+        }
+    }
+
+    public static void onPrimary(Runnable action) {
+        onPrimary(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Associa al thread la richiesta di un client: fino a {@code primaryUntil} (epoch millis) le sue
+     * letture vanno sul primario; a ogni scrittura committata {@code onWrite} riceve la nuova scadenza.
+     */
+    public static void bind(long primaryUntil, LongConsumer onWrite) {
+        State state = STATE.get();
+        state.primaryUntil = primaryUntil;
+        state.onWrite = onWrite;
+    }
+
+    public static void clear() {
+        STATE.remove();
+    }
+
+    static boolean primaryRequired() {
+        State state = STATE.get();
+        return state.pinned > 0 || state.primaryUntil > System.currentTimeMillis();
+    }
+
+    static void writeCommitted(long primaryUntil) {
+        State state = STATE.get();
+        if (primaryUntil > state.primaryUntil) {
+            state.primaryUntil = primaryUntil;
+            if (state.onWrite != null) {
+                state.onWrite.accept(primaryUntil);
+            }
+        }
+    }
+
+    private static final class State {
+        int pinned;
+        long primaryUntil;
+        LongConsumer onWrite;
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.rubrica.routing;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Read-your-writes per client: quando una richiesta committa una scrittura la risposta porta un cookie
+ * con la scadenza della finestra, e le richieste successive dello stesso client leggono dal primario
+ * finché non scade. Non serve stato lato server, quindi vale anche con più istanze.
+ * <p>
+ * Le scritture fuori dal thread della richiesta (write-behind, task asincroni) non impostano il cookie.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    public static final String COOKIE = "rubrica-primary-until";
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        DataSourceRouting.bind(primaryUntil(request), until -> setCookie(response, until));
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            DataSourceRouting.clear();
+        }
+    }
+
+    private static long primaryUntil(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return 0;
+        }
+        for (Cookie cookie : cookies) {
+            if (COOKIE.equals(cookie.getName())) {
+                try {
+                    return Long.parseLong(cookie.getValue());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 0;
+    }
+
+    private static void setCookie(HttpServletResponse response, long until) {
+        if (response.isCommitted()) {
+            return;
+        }
+        long seconds = Math.max(1, (until - System.currentTimeMillis() + 999) / 1000);
+        ResponseCookie cookie = ResponseCookie.from(COOKIE, Long.toString(until))
+                .path("/")
+                .httpOnly(true)
+                .sameSite("Lax")
+                .maxAge(Duration.ofSeconds(seconds))
+                .build();
+        response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.rubrica.routing;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.rubrica.tenant.TenantContext;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Sceglie la connessione in base alla transazione corrente: le transazioni read-only vanno a turno
+ * sulle repliche, tutto il resto (scritture, codice fuori transazione) sul primario. Va usato dietro
+ * un {@link LazyConnectionDataSourceProxy}, perché il flag read-only è impostato dopo l'apertura della
+ * transazione e la connessione va presa solo alla prima query.
+ * <p>
+ * Il ritardo delle repliche non è misurabile da qui, quindi si assume che resti sotto la finestra
+ * {@code readYourWrites}: dopo una scrittura committata su questo nodo le letture dello stesso tenant
+ * restano sul primario finché la finestra non scade, quelle degli altri tenant continuano a usare le
+ * repliche. Revisioni usate come ETag e cache sono per tenant, quindi non vedono mai dati più vecchi di
+ * quelli già committati; le letture di tutti i tenant ({@link TenantContext#ROOT}) restano sul primario
+ * se almeno un tenant è nella finestra. Per le scritture fatte su altri nodi la finestra segue il client
+ * tramite {@link DataSourceRouting} e {@link ReadYourWritesFilter}, e si apre anche qui quando arriva
+ * l'invalidazione della cache ({@link #markBehind}).
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+    static final String PRIMARY = "primary";
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    private final List<DataSource> replicas;
+    private final List<String> replicaKeys = new ArrayList<>();
+    private final Map<String, Counter> routed = new HashMap<>();
+    private final AtomicInteger next = new AtomicInteger();
+    /** Per tenant: fino a quando (epoch millis) le repliche potrebbero non avere l'ultima scrittura di questo nodo. */
+    private final ConcurrentMap<String, Long> replicasBehindUntil = new ConcurrentHashMap<>();
+    private final long readYourWritesMillis;
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, Duration readYourWrites,
+            MeterRegistry registry) {
+        this.replicas = List.copyOf(replicas);
+        this.readYourWritesMillis = readYourWrites.toMillis();
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            String key = "replica-" + i;
+            replicaKeys.add(key);
+            targets.put(key, replicas.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        for (Object key : targets.keySet()) {
+            routed.put((String) key, Counter.builder("rubrica.datasource.routed")
+                    .description("Connessioni assegnate per destinazione")
+                    .tag("target", (String) key)
+                    .register(registry));
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String key = lookupKey();
+        routed.get(key).increment();
+        return key;
+    }
+
+    private String lookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                String tenant = TenantContext.current();
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        DataSourceRouting.writeCommitted(markBehind(tenant));
+                    }
+                });
+            }
+            return PRIMARY;
+        }
+        if (replicaKeys.isEmpty() || replicasBehind(TenantContext.current()) || DataSourceRouting.primaryRequired()) {
+            return PRIMARY;
+        }
+        return replicaKeys.get(Math.floorMod(next.getAndIncrement(), replicaKeys.size()));
+    }
+
+    /**
+     * Le repliche potrebbero non avere ancora l'ultima scrittura di {@code tenant}: le sue letture
+     * restano sul primario per la finestra {@code readYourWrites}. Chiamato dopo i commit di questo nodo
+     * e per le scritture annunciate da altri nodi, che le repliche possono non aver ancora ricevuto.
+     *
+     * @return fine della finestra, in epoch millis
+     */
+    public long markBehind(String tenant) {
+        long until = System.currentTimeMillis() + readYourWritesMillis;
+        return replicasBehindUntil.merge(tenant, until, Math::max);
+    }
+
+    private boolean replicasBehind(String tenant) {
+        long now = System.currentTimeMillis();
+        if (TenantContext.ROOT.equals(tenant)) {
+            return replicasBehindUntil.values().stream().anyMatch(until -> until > now);
+        }
+        Long until = replicasBehindUntil.get(tenant);
+        return until != null && until > now;
+    }
+
+    /** Chiude le repliche; il primario appartiene a chi lo ha creato. */
+    @Override
+    public void close() {
+        for (DataSource replica : replicas) {
+            if (replica instanceof Closeable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    log.warn("Errore in chiusura della replica: {}", e.getMessage());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.rubrica.routing;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Con {@code rubrica.routing.enabled=true} sostituisce il DataSource di Spring Boot: il primario resta
+ * configurato da {@code spring.datasource.*}, le repliche da {@code rubrica.routing.replicas[n].*}.
+ */
+@Configuration
+@ConditionalOnProperty("rubrica.routing.enabled")
+@EnableConfigurationProperties(RoutingProperties.class)
+public class RoutingDataSourceConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(RoutingDataSourceConfig.class);
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource routingDataSource(HikariDataSource primaryDataSource, RoutingProperties properties,
+            MeterRegistry registry) {
+        List<DataSource> replicas = new ArrayList<>();
+        for (RoutingProperties.Replica config : properties.getReplicas()) {
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-" + replicas.size());
+            replica.setJdbcUrl(config.getUrl());
+            replica.setUsername(config.getUsername() != null ? config.getUsername() : primaryDataSource.getUsername());
+            replica.setPassword(config.getPassword() != null ? config.getPassword() : primaryDataSource.getPassword());
+            replica.setMaximumPoolSize(config.getMaximumPoolSize());
+            replica.setAutoCommit(primaryDataSource.isAutoCommit());
+            replica.setReadOnly(true);
+            replicas.add(replica);
+        }
+        log.info("Routing del DataSource attivo: {} repliche, read-your-writes {}", replicas.size(),
+                properties.getReadYourWrites());
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, properties.getReadYourWrites(), registry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    @Bean
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter() {
+        FilterRegistrationBean<ReadYourWritesFilter> registration = new FilterRegistrationBean<>(
+                new ReadYourWritesFilter());
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.rubrica.routing;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties("rubrica.routing")
+public class RoutingProperties {
+
+    /** Se attivo, le transazioni read-only vanno sulle repliche e tutto il resto sul primario. */
+    private boolean enabled = false;
+
+    private List<Replica> replicas = new ArrayList<>();
+
+    /**
+     * Dopo una scrittura, per quanto tempo le letture dello stesso client restano sul primario:
+     * va tenuto sopra il ritardo di replica atteso.
+     */
+    private Duration readYourWrites = Duration.ofSeconds(2);
+
+    @Data
+    public static class Replica {
+
+        private String url;
+        private String username;
+        private String password;
+        private int maximumPoolSize = 10;
+    }
+}
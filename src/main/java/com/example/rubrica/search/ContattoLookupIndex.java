@@ -0,0 +1,72 @@
+package com.example.rubrica.search;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.example.rubrica.dto.ContattoResponse;
+
+/**
+ * Indice hash per la ricerca esatta per telefono ed email normalizzati (vedi {@link TextNormalizer}).
+ * Non è thread-safe: la sincronizzazione è a carico di {@link ContattoSearchIndex}.
+ */
+class ContattoLookupIndex {
+
+    private record Keys(String telefono, String email) {
+    }
+
+    private final Map<Long, Keys> keys = new HashMap<>();
+    private final Map<String, Map<Long, ContattoResponse>> byTelefono = new HashMap<>();
+    private final Map<String, Map<Long, ContattoResponse>> byEmail = new HashMap<>();
+
+    void put(ContattoResponse contatto) {
+        remove(contatto.getId());
+        Keys k = new Keys(TextNormalizer.normalizeTelefono(contatto.getTelefono()),
+                TextNormalizer.normalizeEmail(contatto.getEmail()));
+        add(byTelefono, k.telefono(), contatto);
+        add(byEmail, k.email(), contatto);
+        keys.put(contatto.getId(), k);
+    }
+
+    void remove(Long id) {
+        Keys k = keys.remove(id);
+        if (k != null) {
+            remove(byTelefono, k.telefono(), id);
+            remove(byEmail, k.email(), id);
+        }
+    }
+
+    List<ContattoResponse> findByTelefono(String telefonoNormalizzato) {
+        return copy(byTelefono.get(telefonoNormalizzato));
+    }
+
+    List<ContattoResponse> findByEmail(String emailNormalizzata) {
+        return copy(byEmail.get(emailNormalizzata));
+    }
+
+    private static void add(Map<String, Map<Long, ContattoResponse>> map, String key, ContattoResponse contatto) {
+        if (key != null) {
+            // quasi sempre un solo proprietario: TreeMap piccola e già ordinata per id
+            map.computeIfAbsent(key, x -> new TreeMap<>()).put(contatto.getId(), contatto);
+        }
+    }
+
+    private static void remove(Map<String, Map<Long, ContattoResponse>> map, String key, Long id) {
+        if (key == null) {
+            return;
+        }
+        Map<Long, ContattoResponse> owners = map.get(key);
+        if (owners != null) {
+            owners.remove(id);
+            if (owners.isEmpty()) {
+                map.remove(key);
+            }
+        }
+    }
+
+    private static List<ContattoResponse> copy(Map<Long, ContattoResponse> owners) {
+        return owners == null ? new ArrayList<>() : new ArrayList<>(owners.values());
+    }
+}
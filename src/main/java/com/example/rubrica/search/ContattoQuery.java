@@ -0,0 +1,104 @@
+package com.example.rubrica.search;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ricerca su più campi in AND. I valori sono già normalizzati come le colonne su cui verranno
+ * confrontati; la forma della query ({@link #shape()}) non dipende dai valori, così lo stesso piano
+ * si riusa per tutte le ricerche con gli stessi campi e modalità.
+ */
+public record ContattoQuery(List<Filter> filters) {
+
+    public record Filter(QueryField field, MatchMode mode, String value) {
+    }
+
+    /** Campi e modalità, senza valori. */
+    public record Shape(QueryField field, MatchMode mode) {
+    }
+
+    public ContattoQuery {
+        filters = List.copyOf(filters);
+    }
+
+    public boolean isEmpty() {
+        return filters.isEmpty();
+    }
+
+    public List<Shape> shape() {
+        return filters.stream().map(f -> new Shape(f.field(), f.mode())).toList();
+    }
+
+    public static Builder builder(MatchMode mode) {
+        return new Builder(mode);
+    }
+
+    public static final class Builder {
+
+        private final MatchMode mode;
+        private final List<Filter> filters = new ArrayList<>();
+
+        private Builder(MatchMode mode) {
+            this.mode = mode;
+        }
+
+        public Builder nome(String value) {
+            return text(QueryField.NOME, value);
+        }
+
+        public Builder cognome(String value) {
+            return text(QueryField.COGNOME, value);
+        }
+
+        public Builder email(String value) {
+            if (!isBlank(value)) {
+                filters.add(new Filter(QueryField.EMAIL, mode, TextNormalizer.normalizeEmail(value)));
+            }
+            return this;
+        }
+
+        /**
+         * Per EXACT e PREFIX il numero viene normalizzato con il prefisso internazionale (quindi "333"
+         * trova i cellulari italiani), per CONTAINS si usano solo le cifre.
+         */
+        public Builder telefono(String value) {
+            if (isBlank(value)) {
+                return this;
+            }
+            String digits = mode == MatchMode.CONTAINS ? value.replaceAll("\\D", "")
+                    : TextNormalizer.normalizeTelefono(value);
+            if (digits == null || digits.isEmpty()) {
+                throw new IllegalArgumentException("Telefono non valido: " + value);
+            }
+            filters.add(new Filter(QueryField.TELEFONO, mode, digits));
+            return this;
+        }
+
+        /** Testo libero: ogni parola deve comparire in nome, cognome o email, senza badare agli accenti. */
+        public Builder testo(String value) {
+            if (isBlank(value)) {
+                return this;
+            }
+            for (String word : value.trim().split("\\s+")) {
+                filters.add(new Filter(QueryField.TESTO, MatchMode.CONTAINS, TextNormalizer.normalize(word)));
+            }
+            return this;
+        }
+
+        public ContattoQuery build() {
+            return new ContattoQuery(filters);
+        }
+
+        /** Il confronto esatto è sul valore salvato; quelli parziali su minuscolo e senza accenti. */
+        private Builder text(QueryField field, String value) {
+            if (!isBlank(value)) {
+                filters.add(new Filter(field, mode, mode == MatchMode.EXACT ? value : TextNormalizer.normalize(value)));
+            }
+            return this;
+        }
+
+        private static boolean isBlank(String value) {
+            return value == null || value.isBlank();
+        }
+    }
+}
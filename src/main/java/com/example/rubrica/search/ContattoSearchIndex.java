@@ -0,0 +1,337 @@
+package com.example.rubrica.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.rubrica.dto.ContattoResponse;
+import com.example.rubrica.repository.ContattoRepository;
+import com.example.rubrica.routing.DataSourceRouting;
+import com.example.rubrica.service.event.ContattoEvent;
+import com.example.rubrica.tenant.TenantContext;
+
+/**
+ * Indice di ricerca in memoria per le ricerche parziali su nome, cognome ed email e per quelle
+ * esatte su telefono ed email normalizzati. Viene
+ * costruito all'avvio e aggiornato dopo ogni commit tramite {@link ContattoEvent}; finché non
+ * è pronto il service ricade sulle query al database.
+ * <p>
+ * Ogni tenant ha la sua partizione: le ricerche vedono solo quella del tenant corrente, così il costo
+ * di una ricerca dipende dai contatti del tenant e non dall'intera rubrica.
+ * <p>
+ * Gli eventi dopo il commit di transazioni concorrenti possono arrivare in ordine diverso da quello
+ * dei commit: una versione più vecchia di quella indicizzata viene scartata, e un contatto cancellato
+ * lascia una tombstone (gli id non vengono riusati) che tiene fuori gli aggiornamenti in ritardo fino
+ * alla prossima ricostruzione.
+ */
+@Component
+public class ContattoSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ContattoSearchIndex.class);
+
+    /** Proprietà testuali ordinabili; {@code id} è gestito a parte perché non ammette {@code ignoreCase}. */
+    private static final Map<String, Function<ContattoResponse, String>> SORTABLE = Map.of(
+            "nome", ContattoResponse::getNome,
+            "cognome", ContattoResponse::getCognome,
+            "telefono", ContattoResponse::getTelefono,
+            "email", ContattoResponse::getEmail);
+
+    private static final Comparator<ContattoResponse> BY_ID = Comparator.comparing(ContattoResponse::getId,
+            Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private final ContattoRepository repo;
+    private final TransactionTemplate readOnlyTx;
+    private final boolean enabled;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Map<String, Partition> partitions = new ConcurrentHashMap<>();
+    private List<ContattoEvent> pending;
+    private volatile boolean ready;
+
+    public ContattoSearchIndex(ContattoRepository repo, PlatformTransactionManager transactionManager,
+            @Value("${rubrica.search.index.enabled:true}") boolean enabled) {
+        this.repo = repo;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.enabled = enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    public void rebuild() {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            pending = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Map<String, Partition> fresh = new ConcurrentHashMap<>();
+        try {
+            // dal primario: l'indice poi segue solo gli eventi, una replica in ritardo lo lascerebbe indietro
+            List<String> tenants = DataSourceRouting.onPrimary(() -> TenantContext.callAs(TenantContext.ROOT,
+                    () -> readOnlyTx.execute(status -> repo.findTenantIds())));
+            for (String tenant : tenants) {
+                Partition partition = fresh.computeIfAbsent(tenant, t -> new Partition());
+                DataSourceRouting.onPrimary(() -> TenantContext.runAs(tenant,
+                        () -> readOnlyTx.executeWithoutResult(status -> {
+                            try (Stream<ContattoResponse> stream = repo.streamAll()) {
+                                stream.forEach(partition::put);
+                            }
+                        })));
+            }
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                pending = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            // le modifiche arrivate durante la scansione vanno riapplicate sull'indice nuovo
+            pending.forEach(event -> apply(fresh, event));
+            pending = null;
+            partitions = fresh;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Indice di ricerca costruito: {} contatti di {} tenant in {} ms",
+                fresh.values().stream().mapToInt(p -> p.index.size()).sum(), fresh.size(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onContattoEvent(ContattoEvent event) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (pending != null) {
+                pending.add(event);
+            }
+            apply(partitions, event);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public boolean supports(Sort sort) {
+        if (!ready) {
+            return false;
+        }
+        for (Sort.Order order : sort) {
+            boolean byId = order.getProperty().equals("id") && !order.isIgnoreCase();
+            if (!byId && !SORTABLE.containsKey(order.getProperty())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public List<ContattoResponse> findContaining(SearchField field, String needle) {
+        lock.readLock().lock();
+        try {
+            return partition().index.findContaining(field, needle);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<ContattoResponse> findByTelefono(String telefonoNormalizzato) {
+        lock.readLock().lock();
+        try {
+            return partition().lookup.findByTelefono(telefonoNormalizzato);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<ContattoResponse> findByEmail(String emailNormalizzata) {
+        lock.readLock().lock();
+        try {
+            return partition().lookup.findByEmail(emailNormalizzata);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * L'indice risponde solo a ricerche parziali su nome, cognome, email o testo libero; i filtri
+     * esatti, per prefisso o sul telefono vanno al database.
+     */
+    public boolean supports(ContattoQuery query, Sort sort) {
+        if (query.isEmpty() || !supports(sort)) {
+            return false;
+        }
+        for (ContattoQuery.Filter filter : query.filters()) {
+            if (filter.mode() != MatchMode.CONTAINS || filter.field() == QueryField.TELEFONO) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Intersezione dei filtri sull'indice, poi ordinamento e paginazione in memoria. */
+    public Page<ContattoResponse> search(ContattoQuery query, Pageable pageable) {
+        Map<Long, ContattoResponse> matches = null;
+        lock.readLock().lock();
+        try {
+            ContattoTrigramIndex index = partition().index;
+            for (ContattoQuery.Filter filter : query.filters()) {
+                Map<Long, ContattoResponse> found = new HashMap<>();
+                for (SearchField field : fields(filter.field())) {
+                    for (ContattoResponse contatto : index.findContaining(field, filter.value())) {
+                        if (matches == null || matches.containsKey(contatto.getId())) {
+                            found.put(contatto.getId(), contatto);
+                        }
+                    }
+                }
+                matches = found;
+                if (matches.isEmpty()) {
+                    break;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return page(new ArrayList<>(matches.values()), pageable);
+    }
+
+    public Page<ContattoResponse> search(SearchField field, String needle, Pageable pageable) {
+        return page(findContaining(field, needle), pageable);
+    }
+
+    private static Page<ContattoResponse> page(List<ContattoResponse> matches, Pageable pageable) {
+        matches.sort(comparator(pageable.getSort()));
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(matches, pageable, matches.size());
+        }
+        int from = (int) Math.min(pageable.getOffset(), matches.size());
+        int to = Math.min(from + pageable.getPageSize(), matches.size());
+        return new PageImpl<>(new ArrayList<>(matches.subList(from, to)), pageable, matches.size());
+    }
+
+    private static List<SearchField> fields(QueryField field) {
+        return switch (field) {
+            case NOME -> List.of(SearchField.NOME);
+            case COGNOME -> List.of(SearchField.COGNOME);
+            case EMAIL -> List.of(SearchField.EMAIL);
+            case TESTO -> List.of(SearchField.NOME, SearchField.COGNOME, SearchField.EMAIL);
+            case TELEFONO -> throw new IllegalArgumentException("Telefono non indicizzato");
+        };
+    }
+
+    /** Partizione del tenant corrente; un tenant senza contatti indicizzati ne riceve una vuota. */
+    private Partition partition() {
+        Partition partition = partitions.get(TenantContext.current());
+        return partition != null ? partition : Partition.EMPTY;
+    }
+
+    private static void apply(Map<String, Partition> target, ContattoEvent event) {
+        if (event.type() == ContattoEvent.Type.DELETED) {
+            target.computeIfAbsent(event.tenantId(), t -> new Partition()).remove(event.id());
+        } else {
+            target.computeIfAbsent(event.tenantId(), t -> new Partition()).put(event.contatto());
+        }
+    }
+
+    /** Stesso ordine della query al database, compresi {@code ignoreCase} e la posizione dei null. */
+    private static Comparator<ContattoResponse> comparator(Sort sort) {
+        Comparator<ContattoResponse> result = null;
+        for (Sort.Order order : sort) {
+            Comparator<ContattoResponse> next;
+            if (order.getProperty().equals("id")) {
+                next = comparator(ContattoResponse::getId, order);
+            } else {
+                Function<ContattoResponse, String> accessor = SORTABLE.get(order.getProperty());
+                next = comparator(order.isIgnoreCase() ? accessor.andThen(ContattoSearchIndex::lower) : accessor,
+                        order);
+            }
+            result = result == null ? next : result.thenComparing(next);
+        }
+        return result == null ? BY_ID : result.thenComparing(BY_ID);
+    }
+
+    private static <T extends Comparable<? super T>> Comparator<ContattoResponse> comparator(
+            Function<ContattoResponse, T> key, Sort.Order order) {
+        Comparator<T> values = order.isDescending() ? Comparator.reverseOrder() : Comparator.naturalOrder();
+        // NATIVE come H2: i null valgono meno di ogni valore, quindi primi in ASC e ultimi in DESC
+        boolean nullsFirst = switch (order.getNullHandling()) {
+            case NULLS_FIRST -> true;
+            case NULLS_LAST -> false;
+            case NATIVE -> order.isAscending();
+        };
+        return Comparator.comparing(key, nullsFirst ? Comparator.nullsFirst(values) : Comparator.nullsLast(values));
+    }
+
+    private static String lower(String value) {
+        return value == null ? null : value.toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Partition {
+
+        static final Partition EMPTY = new Partition();
+
+        /** Versione indicizzata per id; {@link #DELETED} per i contatti cancellati. */
+        private static final long DELETED = Long.MAX_VALUE;
+
+        final ContattoTrigramIndex index = new ContattoTrigramIndex();
+        final ContattoLookupIndex lookup = new ContattoLookupIndex();
+        private final Map<Long, Long> versions = new HashMap<>();
+
+        /** Indicizza {@code contatto}, salvo che sia cancellato o più vecchio della versione presente. */
+        void put(ContattoResponse contatto) {
+            long version = contatto.getVersion() == null ? -1 : contatto.getVersion();
+            Long current = versions.get(contatto.getId());
+            if (current != null && current > version) {
+                return;
+            }
+            versions.put(contatto.getId(), version);
+            index.put(contatto);
+            lookup.put(contatto);
+        }
+
+        void remove(Long id) {
+            versions.put(id, DELETED);
+            index.remove(id);
+            lookup.remove(id);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.rubrica.search;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.example.rubrica.dto.ContattoResponse;
+
+/**
+ * Indice a trigrammi su nome, cognome ed email normalizzati. Una ricerca "contiene" interseca le
+ * posting list dei trigrammi dell'ago e verifica i candidati, senza scansioni complete.
+ * Non è thread-safe: la sincronizzazione è a carico di {@link ContattoSearchIndex}.
+ */
+class ContattoTrigramIndex {
+
+    private static final int GRAM = 3;
+
+    private record Entry(ContattoResponse contatto, String[] normalized) {
+    }
+
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final Map<SearchField, Map<String, Set<Long>>> postings = new EnumMap<>(SearchField.class);
+
+    ContattoTrigramIndex() {
+        for (SearchField field : SearchField.values()) {
+            postings.put(field, new HashMap<>());
+        }
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    void put(ContattoResponse contatto) {
+        remove(contatto.getId());
+        SearchField[] fields = SearchField.values();
+        String[] normalized = new String[fields.length];
+        for (SearchField field : fields) {
+            String value = field.valueOf(contatto);
+            normalized[field.ordinal()] = value == null ? null : TextNormalizer.normalize(value);
+            if (value != null) {
+                Map<String, Set<Long>> fieldPostings = postings.get(field);
+                for (String gram : grams(normalized[field.ordinal()])) {
+                    fieldPostings.computeIfAbsent(gram, k -> new HashSet<>()).add(contatto.getId());
+                }
+            }
+        }
+        entries.put(contatto.getId(), new Entry(contatto, normalized));
+    }
+
+    void remove(Long id) {
+        Entry entry = entries.remove(id);
+        if (entry == null) {
+            return;
+        }
+        for (SearchField field : SearchField.values()) {
+            String normalized = entry.normalized()[field.ordinal()];
+            if (normalized == null) {
+                continue;
+            }
+            Map<String, Set<Long>> fieldPostings = postings.get(field);
+            for (String gram : grams(normalized)) {
+                Set<Long> ids = fieldPostings.get(gram);
+                if (ids != null && ids.remove(id) && ids.isEmpty()) {
+                    fieldPostings.remove(gram);
+                }
+            }
+        }
+    }
+
+    List<ContattoResponse> findContaining(SearchField field, String needle) {
+        String normalizedNeedle = TextNormalizer.normalize(needle);
+        int ordinal = field.ordinal();
+        List<ContattoResponse> result = new ArrayList<>();
+
+        if (normalizedNeedle.length() < GRAM) {
+            for (Entry entry : entries.values()) {
+                String value = entry.normalized()[ordinal];
+                if (value != null && value.contains(normalizedNeedle)) {
+                    result.add(entry.contatto());
+                }
+            }
+            return result;
+        }
+
+        Set<String> needleGrams = grams(normalizedNeedle);
+        Map<String, Set<Long>> fieldPostings = postings.get(field);
+        List<Set<Long>> lists = new ArrayList<>(needleGrams.size());
+        for (String gram : needleGrams) {
+            Set<Long> ids = fieldPostings.get(gram);
+            if (ids == null) {
+                return result;
+            }
+            lists.add(ids);
+        }
+        lists.sort((a, b) -> Integer.compare(a.size(), b.size()));
+
+        candidates: for (Long id : lists.get(0)) {
+            for (int i = 1; i < lists.size(); i++) {
+                if (!lists.get(i).contains(id)) {
+                    continue candidates;
+                }
+            }
+            Entry entry = entries.get(id);
+            if (entry.normalized()[ordinal].contains(normalizedNeedle)) {
+                result.add(entry.contatto());
+            }
+        }
+        return result;
+    }
+
+    private static Set<String> grams(String value) {
+        if (value.length() < GRAM) {
+            return Set.of();
+        }
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= value.length(); i++) {
+            grams.add(value.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+}
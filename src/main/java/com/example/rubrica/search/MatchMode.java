@@ -0,0 +1,18 @@
+package com.example.rubrica.search;
+
+import java.util.Locale;
+
+public enum MatchMode {
+
+    EXACT,
+    PREFIX,
+    CONTAINS;
+
+    public static MatchMode fromParam(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Modalità di ricerca non supportata: " + value);
+        }
+    }
+}
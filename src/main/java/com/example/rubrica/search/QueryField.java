@@ -0,0 +1,12 @@
+package com.example.rubrica.search;
+
+/**
+ * Campi filtrabili di {@link ContattoQuery}. {@code TESTO} cerca una parola in nome, cognome o email.
+ */
+public enum QueryField {
+    NOME,
+    COGNOME,
+    EMAIL,
+    TELEFONO,
+    TESTO
+}
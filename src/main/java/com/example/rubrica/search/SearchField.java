@@ -0,0 +1,22 @@
+package com.example.rubrica.search;
+
+import java.util.function.Function;
+
+import com.example.rubrica.dto.ContattoResponse;
+
+public enum SearchField {
+
+    NOME(ContattoResponse::getNome),
+    COGNOME(ContattoResponse::getCognome),
+    EMAIL(ContattoResponse::getEmail);
+
+    private final Function<ContattoResponse, String> accessor;
+
+    SearchField(Function<ContattoResponse, String> accessor) {
+        this.accessor = accessor;
+    }
+
+    String valueOf(ContattoResponse contatto) {
+        return accessor.apply(contatto);
+    }
+}
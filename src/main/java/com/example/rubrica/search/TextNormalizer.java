@@ -0,0 +1,73 @@
+package com.example.rubrica.search;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+public final class TextNormalizer {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    /** Prefisso internazionale aggiunto ai numeri scritti senza. */
+    public static final String DEFAULT_COUNTRY_PREFIX = "39";
+
+    private TextNormalizer() {
+    }
+
+    /**
+     * Minuscolo e senza accenti: "Niccolò" e "NICCOLO" producono la stessa chiave.
+     */
+    public static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        String lower = value.trim().toLowerCase(Locale.ROOT);
+        for (int i = 0; i < lower.length(); i++) {
+            if (lower.charAt(i) > 0x7F) {
+                return DIACRITICS.matcher(Normalizer.normalize(lower, Normalizer.Form.NFD)).replaceAll("");
+            }
+        }
+        return lower;
+    }
+
+    /** Toglie a {@code \}, {@code %} e {@code _} il significato speciale in un {@code LIKE ... ESCAPE '\'}. */
+    public static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    /**
+     * Solo cifre, con prefisso internazionale e senza "+" o "00": "+39 333 123-4567", "0039 3331234567"
+     * e "333 1234567" producono tutti "393331234567". {@code null} se non ci sono cifre.
+     */
+    public static String normalizeTelefono(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        StringBuilder digits = new StringBuilder(trimmed.length() + DEFAULT_COUNTRY_PREFIX.length());
+        for (int i = 0; i < trimmed.length(); i++) {
+            char c = trimmed.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            }
+        }
+        if (digits.isEmpty()) {
+            return null;
+        }
+        if (trimmed.startsWith("+")) {
+            return digits.toString();
+        }
+        if (digits.length() > 2 && digits.charAt(0) == '0' && digits.charAt(1) == '0') {
+            return digits.substring(2);
+        }
+        return digits.insert(0, DEFAULT_COUNTRY_PREFIX).toString();
+    }
+
+    /** Email senza spazi e in minuscolo; {@code null} se vuota. */
+    public static String normalizeEmail(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.rubrica.seed;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import com.example.rubrica.mapper.ContattoMapper;
+import com.example.rubrica.model.Contatto;
+import com.example.rubrica.service.ContattoService;
+
+/**
+ * Popola il database con {@code rubrica.seed.rows} contatti sintetici all'avvio, in alternativa
+ * ai due record di {@code data.sql} (da disattivare con {@code spring.sql.init.mode=never}).
+ */
+@Component
+public class SyntheticDataSeeder implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(SyntheticDataSeeder.class);
+
+    private final ContattoService service;
+    private final ContattoMapper mapper;
+    private final int rows;
+    private final long seed;
+    private final int batchSize;
+
+    public SyntheticDataSeeder(ContattoService service, ContattoMapper mapper,
+            @Value("${rubrica.seed.rows:0}") int rows,
+            @Value("${rubrica.seed.random-seed:42}") long seed,
+            @Value("${rubrica.import.batch-size:500}") int batchSize) {
+        this.service = service;
+        this.mapper = mapper;
+        this.rows = rows;
+        this.seed = seed;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (rows > 0) {
+            seed(rows);
+        }
+    }
+
+    public void seed(int count) {
+        long start = System.nanoTime();
+        SyntheticContattoGenerator generator = new SyntheticContattoGenerator(seed);
+        List<Contatto> batch = new ArrayList<>(batchSize);
+        for (int i = 0; i < count; i++) {
+            batch.add(mapper.toEntity(generator.next()));
+            if (batch.size() == batchSize) {
+                service.insertAll(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            service.insertAll(batch);
+        }
+        log.info("Generati {} contatti sintetici in {} ms", count, (System.nanoTime() - start) / 1_000_000);
+    }
+}
@@ -1,101 +1,386 @@
 package com.example.rubrica.service;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.example.rubrica.cache.ContattoCache;
+import com.example.rubrica.dto.BatchItemResult;
+import com.example.rubrica.dto.ContattoBatchUpdate;
 import com.example.rubrica.dto.ContattoRequest;
+import com.example.rubrica.dto.CursorPage;
+import com.example.rubrica.dto.ContattoResponse;
 import com.example.rubrica.mapper.ContattoMapper;
 import com.example.rubrica.model.Contatto;
 import com.example.rubrica.repository.ContattoRepository;
+import com.example.rubrica.search.ContattoQuery;
+import com.example.rubrica.search.ContattoSearchIndex;
+import com.example.rubrica.search.SearchField;
+import com.example.rubrica.search.TextNormalizer;
+import com.example.rubrica.service.event.ContattoEvent;
+import com.example.rubrica.tenant.TenantQuota;
+
+import io.micrometer.core.annotation.Timed;
+
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 
 @Service
+@Timed(value = "rubrica.service", histogram = true, percentiles = { 0.5, 0.95, 0.99 })
 public class ContattoService {
 
     private final ContattoRepository repo;
     private final ContattoMapper mapper;
+    private final EntityManager entityManager;
+    private final ContattoSearchIndex searchIndex;
+    private final ContattoCache cache;
+    private final TenantQuota quota;
+    private final ApplicationEventPublisher events;
+    private final Validator validator;
+    private final TransactionTemplate writeTx;
+    private final int maxUpdateAttempts;
 
-    public ContattoService(ContattoRepository repo, ContattoMapper mapper) {
+    public ContattoService(ContattoRepository repo, ContattoMapper mapper, EntityManager entityManager,
+            ContattoSearchIndex searchIndex, ContattoCache cache, TenantQuota quota, ApplicationEventPublisher events,
+            Validator validator, PlatformTransactionManager transactionManager,
+            @Value("${rubrica.update.max-attempts:5}") int maxUpdateAttempts) {
         this.repo = repo;
         this.mapper = mapper;
+        this.entityManager = entityManager;
+        this.searchIndex = searchIndex;
+        this.cache = cache;
+        this.quota = quota;
+        this.events = events;
+        this.validator = validator;
+        this.writeTx = new TransactionTemplate(transactionManager);
+        this.maxUpdateAttempts = maxUpdateAttempts;
     }
 
-    public List<Contatto> findAll() {
+    /**
+     * Le letture selezionano direttamente {@link ContattoResponse}: nessuna entity idratata nel
+     * persistence context e nessuna copia tramite il mapper.
+     */
+    @Transactional(readOnly = true)
+    public List<ContattoResponse> findAll() {
 
-        return repo.findAll();
+        return repo.findAllResponses();
     }
 
+    /**
+     * Scorre tutti i contatti con un cursore forward-only e li passa al sink uno alla volta. Le righe
+     * sono proiezioni non gestite dal persistence context, quindi la memoria resta costante
+     * indipendentemente dal numero di righe.
+     */
     @Transactional(readOnly = true)
-    @Cacheable(value = "contatti", key = "#id")
-    public Optional<Contatto> findById(Long id) {
+    public long exportAll(Consumer<ContattoResponse> sink) {
+        long count = 0;
+        try (Stream<ContattoResponse> stream = repo.streamAll()) {
+            for (ContattoResponse contatto : (Iterable<ContattoResponse>) stream::iterator) {
+                sink.accept(contatto);
+                count++;
+            }
+        }
+        return count;
+    }
 
-        return repo.findById(id);
+    @Transactional(readOnly = true)
+    public Optional<ContattoResponse> findResponseById(Long id) {
+
+        return cache.get(id, repo::findResponseById);
+    }
+
+    /**
+     * Lettura batch: gli id già in cache non toccano il database, gli altri vengono letti con
+     * un'unica query {@code IN}. I risultati seguono l'ordine degli id richiesti.
+     */
+    @Transactional(readOnly = true)
+    public List<BatchItemResult> findAllById(List<Long> ids) {
 
+        Map<Long, ContattoResponse> found = cache.getAll(ids, misses -> repo.findResponsesByIdIn(misses).stream()
+                .collect(Collectors.toMap(ContattoResponse::getId, Function.identity())));
+        List<BatchItemResult> results = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            ContattoResponse contatto = found.get(id);
+            results.add(contatto != null ? BatchItemResult.ok(contatto)
+                    : BatchItemResult.error(id, 404, "Contatto non trovato"));
+        }
+        return results;
     }
 
     @Transactional
     public Contatto insertContatto(Contatto contatto) {
 
-        return repo.save(contatto);
+        quota.check(1);
+        Contatto saved = repo.save(contatto);
+        events.publishEvent(ContattoEvent.created(mapper.toResponse(saved)));
+        return saved;
+    }
+
+    /**
+     * Inserisce un blocco di contatti in un'unica transazione. Con gli id da sequence pooled
+     * Hibernate raggruppa le INSERT in batch JDBC ({@code hibernate.jdbc.batch_size}); il
+     * persistence context viene svuotato alla fine per non accumulare entity.
+     */
+    @Transactional
+    public List<Contatto> insertAll(List<Contatto> contatti) {
+
+        quota.check(contatti.size());
+        List<Contatto> saved = repo.saveAll(contatti);
+        repo.flush();
+        saved.forEach(c -> events.publishEvent(ContattoEvent.created(mapper.toResponse(c))));
+        entityManager.clear();
+        return saved;
     }
 
     public Contatto updateContatto(Long id, ContattoRequest contatto) {
 
+        return updateContatto(id, contatto, null);
+    }
+
+    /**
+     * Aggiorna un contatto. Con {@code expectedVersion} (da If-Match) l'aggiornamento fallisce subito
+     * se il contatto è già cambiato. Senza, un conflitto con una scrittura concorrente (rilevato dal
+     * {@code @Version} al flush) viene ritentato in una nuova transazione, rileggendo il contatto, fino
+     * a {@code rubrica.update.max-attempts} tentativi con una breve attesa casuale: ogni aggiornamento
+     * confermato produce una nuova versione, nessuno viene perso in silenzio.
+     * <p>
+     * Non è {@code @Transactional}: ogni tentativo apre la propria transazione, quindi va chiamato
+     * fuori da transazioni già aperte.
+     */
+    public Contatto updateContatto(Long id, ContattoRequest contatto, Long expectedVersion) {
+
+        for (int attempt = 1;; attempt++) {
+            try {
+                return writeTx.execute(status -> doUpdate(id, contatto, expectedVersion));
+            } catch (OptimisticLockingFailureException e) {
+                if (expectedVersion != null || attempt >= maxUpdateAttempts) {
+                    throw e;
+                }
+                backoff(attempt);
+            }
+        }
+    }
+
+    private Contatto doUpdate(Long id, ContattoRequest contatto, Long expectedVersion) {
         Contatto entity = repo.findById(id).orElseThrow(() -> new NoSuchElementException("Contatto non trovato"));
+        if (expectedVersion != null && !expectedVersion.equals(entity.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(Contatto.class, id);
+        }
         mapper.updateEntity(entity, contatto);
-        return repo.save(entity);
+        Contatto saved = repo.saveAndFlush(entity);
+        events.publishEvent(ContattoEvent.updated(mapper.toResponse(saved)));
+        return saved;
+    }
 
-    };
+    private static void backoff(int attempt) {
+        try {
+            // attesa casuale crescente, così i concorrenti non si ripresentano insieme
+            Thread.sleep(ThreadLocalRandom.current().nextLong(1, 2L << Math.min(attempt, 6)));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrotto durante l'attesa tra i tentativi", e);
+        }
+    }
 
+    /**
+     * Aggiornamento batch in un'unica transazione: una SELECT {@code IN} per caricare le entity e un
+     * solo flush, che Hibernate raggruppa in batch JDBC. Gli elementi non validi, inesistenti o con
+     * versione diversa da quella attesa vengono scartati singolarmente; un conflitto rilevato al
+     * flush annulla invece l'intero batch.
+     */
     @Transactional
-    public void deleteContatto(Long id) {
+    public List<BatchItemResult> updateAll(List<ContattoBatchUpdate> updates) {
 
-        repo.deleteById(id);
-    }
+        Set<Long> ids = new HashSet<>();
+        for (ContattoBatchUpdate update : updates) {
+            if (update.getId() != null) {
+                ids.add(update.getId());
+            }
+        }
+        Map<Long, Contatto> entities = repo.findAllById(ids).stream()
+                .collect(Collectors.toMap(Contatto::getId, Function.identity()));
+
+        BatchItemResult[] results = new BatchItemResult[updates.size()];
+        List<Integer> applied = new ArrayList<>();
+        for (int i = 0; i < updates.size(); i++) {
+            ContattoBatchUpdate update = updates.get(i);
+            Long id = update.getId();
+            String invalid = validate(update);
+            Contatto entity = id == null ? null : entities.get(id);
+            if (invalid != null) {
+                results[i] = BatchItemResult.error(id, 400, invalid);
+            } else if (entity == null) {
+                results[i] = BatchItemResult.error(id, 404, "Contatto non trovato");
+            } else if (update.getVersion() != null && !update.getVersion().equals(entity.getVersion())) {
+                results[i] = BatchItemResult.error(id, 412, "Versione attuale " + entity.getVersion());
+            } else {
+                mapper.updateEntity(entity, update.getContatto());
+                applied.add(i);
+            }
+        }
 
-    public List<Contatto> findByNomeAndCognome(String nome, String cognome) {
+        repo.flush();
+        for (int i : applied) {
+            ContattoResponse response = mapper.toResponse(entities.get(updates.get(i).getId()));
+            events.publishEvent(ContattoEvent.updated(response));
+            results[i] = BatchItemResult.ok(response);
+        }
+        return List.of(results);
+    }
 
-        return repo.findByNomeAndCognome(nome, cognome);
+    @Transactional
+    public void deleteContatto(Long id) {
 
+        // l'evento solo se il contatto c'era: un id di un altro tenant non deve toccare revisioni e quote
+        repo.findById(id).ifPresent(contatto -> {
+            repo.delete(contatto);
+            events.publishEvent(ContattoEvent.deleted(id));
+        });
     }
 
-    @Transactional(readOnly = true)
-    public List<Contatto> findByNome(String nome) {
+    /**
+     * Cancellazione batch: una SELECT per sapere quali id esistono e un'unica DELETE {@code IN}.
+     */
+    @Transactional
+    public List<BatchItemResult> deleteAll(List<Long> ids) {
 
-        return repo.findByNome(nome);
+        Set<Long> existing = new HashSet<>(repo.findExistingIds(ids));
+        if (!existing.isEmpty()) {
+            repo.deleteAllByIdInBatch(existing);
+        }
+        List<BatchItemResult> results = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            if (existing.remove(id)) {
+                events.publishEvent(ContattoEvent.deleted(id));
+                results.add(BatchItemResult.deleted(id));
+            } else {
+                results.add(BatchItemResult.error(id, 404, "Contatto non trovato"));
+            }
+        }
+        return results;
+    }
 
+    private String validate(ContattoBatchUpdate update) {
+        if (update.getId() == null) {
+            return "id: obbligatorio";
+        }
+        if (update.getContatto() == null) {
+            return "contatto: obbligatorio";
+        }
+        Set<ConstraintViolation<ContattoRequest>> violations = validator.validate(update.getContatto());
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
     }
 
+    /**
+     * Ricerca combinata su più campi: le ricerche parziali che l'indice sa servire restano in memoria,
+     * tutte le altre diventano un'unica query al database.
+     */
     @Transactional(readOnly = true)
-    public List<Contatto> findByCognome(String cognome) {
+    public Page<ContattoResponse> search(ContattoQuery query, Pageable pageable) {
 
-        return repo.findByCognome(cognome);
+        if (searchIndex.supports(query, pageable.getSort())) {
+            return searchIndex.search(query, pageable);
+        }
+        return repo.search(query, pageable);
     }
 
     @Transactional(readOnly = true)
-    public List<Contatto> findByNameLike(String nome) {
+    public List<ContattoResponse> findByNameLike(String nome) {
 
-        return repo.findByNomeLike(nome);
+        if (searchIndex.isReady()) {
+            List<ContattoResponse> result = searchIndex.findContaining(SearchField.NOME, nome);
+            result.sort(Comparator.comparing(ContattoResponse::getId));
+            return result;
+        }
+        return repo.findByNomeLike(TextNormalizer.normalize(nome));
     }
 
+    /**
+     * Ricerca esatta per telefono, in qualunque formato ammesso da {@link ContattoRequest}: la chiave
+     * normalizzata viene cercata nell'indice in memoria o, se non è pronto, sulla colonna indicizzata.
+     */
     @Transactional(readOnly = true)
-    public Page<Contatto> findAll(Pageable pageable) {
-        return repo.findAll(pageable);
+    public List<ContattoResponse> findByTelefono(String telefono) {
+
+        String key = TextNormalizer.normalizeTelefono(telefono);
+        if (key == null) {
+            return List.of();
+        }
+        if (searchIndex.isReady()) {
+            return searchIndex.findByTelefono(key);
+        }
+        return repo.findByTelefonoNormalizzato(key);
     }
 
     @Transactional(readOnly = true)
-    public Page<Contatto> searchByNome(String nome, Pageable pageable) {
-        return repo.findByNomeContainingIgnoreCase(nome, pageable);
+    public List<ContattoResponse> findByEmail(String email) {
+
+        String key = TextNormalizer.normalizeEmail(email);
+        if (key == null) {
+            return List.of();
+        }
+        if (searchIndex.isReady()) {
+            return searchIndex.findByEmail(key);
+        }
+        return repo.findByEmailNormalizzata(key);
     }
 
+    /**
+     * Paginazione keyset su (cognome, nome, id): ogni pagina riparte dall'ultima chiave letta
+     * invece di usare OFFSET, e non esegue la COUNT, quindi il costo non dipende dalla profondità.
+     */
     @Transactional(readOnly = true)
-    public Page<Contatto> searchByCognome(String cognome, Pageable pageable) {
-        return repo.findByCognomeContainingIgnoreCase(cognome, pageable);
+    public CursorPage<ContattoResponse> scroll(String nome, String cognome, String cursor, int size) {
+        String nomeFilter = nome == null || nome.isBlank() ? null
+                : TextNormalizer.escapeLike(TextNormalizer.normalize(nome));
+        String cognomeFilter = cognome == null || cognome.isBlank() ? null
+                : TextNormalizer.escapeLike(TextNormalizer.normalize(cognome));
+        Pageable limit = PageRequest.of(0, size);
+
+        Slice<ContattoResponse> slice;
+        if (cursor == null || cursor.isBlank()) {
+            slice = repo.findFirstSlice(nomeFilter, cognomeFilter, limit);
+        } else {
+            KeysetCursor after = KeysetCursor.decode(cursor);
+            slice = repo.findSliceAfter(nomeFilter, cognomeFilter, after.cognome(), after.nome(), after.id(), limit);
+        }
+
+        List<ContattoResponse> content = slice.getContent();
+        String nextCursor = null;
+        if (slice.hasNext()) {
+            ContattoResponse last = content.get(content.size() - 1);
+            nextCursor = new KeysetCursor(last.getCognome(), last.getNome(), last.getId()).encode();
+        }
+        return new CursorPage<>(content, content.size(), slice.hasNext(), nextCursor);
     }
 }
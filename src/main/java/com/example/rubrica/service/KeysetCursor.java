@@ -0,0 +1,31 @@
+package com.example.rubrica.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Posizione nella paginazione keyset ordinata per (cognome, nome, id), serializzata come token
+ * opaco per il client.
+ */
+public record KeysetCursor(String cognome, String nome, Long id) {
+
+    private static final String SEPARATOR = "\u001F";
+
+    public String encode() {
+        String raw = cognome + SEPARATOR + nome + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static KeysetCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(SEPARATOR, -1);
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Cursore non valido");
+            }
+            return new KeysetCursor(parts[0], parts[1], Long.valueOf(parts[2]));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursore non valido", e);
+        }
+    }
+}
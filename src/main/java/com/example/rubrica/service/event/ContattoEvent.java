@@ -0,0 +1,27 @@
+package com.example.rubrica.service.event;
+
+import com.example.rubrica.dto.ContattoResponse;
+import com.example.rubrica.tenant.TenantContext;
+
+/**
+ * Pubblicato da {@code ContattoService} a ogni modifica di un contatto, con il tenant della
+ * transazione che l'ha prodotta. Per le cancellazioni {@code contatto} è {@code null}.
+ */
+public record ContattoEvent(String tenantId, Type type, Long id, ContattoResponse contatto) {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+
+    public static ContattoEvent created(ContattoResponse contatto) {
+        return new ContattoEvent(TenantContext.current(), Type.CREATED, contatto.getId(), contatto);
+    }
+
+    public static ContattoEvent updated(ContattoResponse contatto) {
+        return new ContattoEvent(TenantContext.current(), Type.UPDATED, contatto.getId(), contatto);
+    }
+
+    public static ContattoEvent deleted(Long id) {
+        return new ContattoEvent(TenantContext.current(), Type.DELETED, id, null);
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.rubrica.tenant;
+
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Tenant del thread corrente, impostato da {@link TenantFilter} per ogni richiesta. Senza un tenant
+ * esplicito (avvio, seed, test) vale {@link #DEFAULT}. Il lavoro che passa su un altro thread (stream,
+ * long-poll, coda di inserimento) deve portarsi dietro il tenant con {@link #callAs}.
+ */
+public final class TenantContext {
+
+    public static final String DEFAULT = "default";
+
+    /**
+     * Tenant speciale per le letture che attraversano tutti i tenant (ricostruzione di indice e cache):
+     * Hibernate non aggiunge il filtro sul tenant. Non è accettato dall'header.
+     */
+    public static final String ROOT = "*";
+
+    private static final Pattern VALID = Pattern.compile("[A-Za-z0-9][A-Za-z0-9_.-]{0,63}");
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private TenantContext() {
+    }
+
+    public static String current() {
+        String tenant = CURRENT.get();
+        return tenant != null ? tenant : DEFAULT;
+    }
+
+    public static boolean isValid(String tenant) {
+        return tenant != null && VALID.matcher(tenant).matches();
+    }
+
+    static void set(String tenant) {
+        CURRENT.set(tenant);
+    }
+
+    static void clear() {
+        CURRENT.remove();
+    }
+
+    /** Esegue {@code action} per conto di {@code tenant}, ripristinando poi il tenant precedente. */
+    public static <T> T callAs(String tenant, Supplier<T> action) {
+        String previous = CURRENT.get();
+        CURRENT.set(tenant);
+        try {
+            return action.get();
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    public static void runAs(String tenant, Runnable action) {
+        callAs(tenant, () -> {
+            action.run();
+            return null;
+        });
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.rubrica.tenant;
+
+import java.io.IOException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/** Imposta {@link TenantContext} dall'header della richiesta per tutta la durata della chiamata. */
+public class TenantFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(TenantFilter.class);
+
+    private final TenantProperties properties;
+
+    public TenantFilter(TenantProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String tenant = request.getHeader(properties.getHeader());
+        if (tenant == null && !properties.isRequired()) {
+            tenant = TenantContext.DEFAULT;
+        }
+        if (!TenantContext.isValid(tenant)) {
+            log.warn("[{} {}] Tenant non valido: {} (400)", request.getMethod(), request.getRequestURI(), tenant);
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Header " + properties.getHeader() + " non valido");
+            return;
+        }
+        TenantContext.set(tenant);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            TenantContext.clear();
+        }
+    }
+}
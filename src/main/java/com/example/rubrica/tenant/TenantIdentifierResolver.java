@@ -0,0 +1,29 @@
+package com.example.rubrica.tenant;
+
+import org.hibernate.context.spi.CurrentTenantIdentifierResolver;
+
+/**
+ * Passa a Hibernate il tenant di {@link TenantContext}: le entity con {@code @TenantId} ricevono il
+ * tenant all'inserimento e ogni query (finder, JPQL, criteria) viene filtrata su {@code tenant_id}.
+ * La sessione prende il tenant quando si apre, quindi va impostato prima della transazione.
+ * <p>
+ * Registrato per nome in {@code hibernate.tenant_identifier_resolver}, così vale anche nei test
+ * {@code @DataJpaTest} che non caricano i componenti dell'applicazione.
+ */
+public class TenantIdentifierResolver implements CurrentTenantIdentifierResolver<String> {
+
+    @Override
+    public String resolveCurrentTenantIdentifier() {
+        return TenantContext.current();
+    }
+
+    @Override
+    public boolean validateExistingCurrentSessions() {
+        return false;
+    }
+
+    @Override
+    public boolean isRoot(String tenantId) {
+        return TenantContext.ROOT.equals(tenantId);
+    }
+}
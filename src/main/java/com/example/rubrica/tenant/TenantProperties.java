@@ -0,0 +1,25 @@
+package com.example.rubrica.tenant;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties("rubrica.tenant")
+public class TenantProperties {
+
+    /** Header da cui si legge il tenant della richiesta. */
+    private String header = "X-Tenant-ID";
+
+    /** Se attivo le richieste senza header ricevono 400; altrimenti usano il tenant {@code default}. */
+    private boolean required = false;
+
+    /** Contatti massimi per tenant; 0 per nessun limite. */
+    private long maxRows = 0;
+
+    /** Limite per singolo tenant, con precedenza su {@code max-rows}. */
+    private Map<String, Long> quotas = new LinkedHashMap<>();
+}
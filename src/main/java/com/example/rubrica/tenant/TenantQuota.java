@@ -0,0 +1,61 @@
+package com.example.rubrica.tenant;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.rubrica.repository.ContattoRepository;
+import com.example.rubrica.service.event.ContattoEvent;
+
+/**
+ * Limite di contatti per tenant. Il conteggio di ogni tenant viene letto una volta dal database e poi
+ * aggiornato con gli eventi committati, così il controllo non costa una COUNT a ogni inserimento.
+ * Inserimenti concorrenti dello stesso tenant possono superare il limite di poco: è una quota, non
+ * un vincolo.
+ */
+@Component
+public class TenantQuota {
+
+    private final ContattoRepository repo;
+    private final TenantProperties properties;
+    private final Map<String, AtomicLong> counts = new ConcurrentHashMap<>();
+
+    public TenantQuota(ContattoRepository repo, TenantProperties properties) {
+        this.repo = repo;
+        this.properties = properties;
+    }
+
+    public long limit(String tenant) {
+        return properties.getQuotas().getOrDefault(tenant, properties.getMaxRows());
+    }
+
+    /** Da chiamare nella transazione di inserimento, prima di scrivere {@code rows} contatti. */
+    public void check(int rows) {
+        String tenant = TenantContext.current();
+        long limit = limit(tenant);
+        if (limit > 0 && count(tenant).get() + rows > limit) {
+            throw new TenantQuotaExceededException(tenant, limit);
+        }
+    }
+
+    private AtomicLong count(String tenant) {
+        // la COUNT gira nella sessione corrente, già filtrata sul tenant
+        return counts.computeIfAbsent(tenant, t -> new AtomicLong(repo.count()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onContattoEvent(ContattoEvent event) {
+        AtomicLong count = counts.get(event.tenantId());
+        if (count == null || event.type() == ContattoEvent.Type.UPDATED) {
+            return;
+        }
+        if (event.type() == ContattoEvent.Type.CREATED) {
+            count.incrementAndGet();
+        } else {
+            count.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.rubrica.tenant;
+
+public class TenantQuotaExceededException extends RuntimeException {
+
+    public TenantQuotaExceededException(String tenant, long limit) {
+        super("Quota del tenant " + tenant + " esaurita (" + limit + " contatti)");
+    }
+}
@@ -0,0 +1,45 @@
+package db.migration;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import com.example.rubrica.search.TextNormalizer;
+
+/**
+ * Colonne di ricerca parziale su nome e cognome, minuscole e senza accenti. In Java e non in SQL:
+ * vanno riempite con lo stesso {@link TextNormalizer} usato dall'entity e dall'indice in memoria.
+ */
+public class V4__nomi_normalizzati extends BaseJavaMigration {
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        try (Statement ddl = context.getConnection().createStatement()) {
+            ddl.execute("ALTER TABLE contatto ADD COLUMN nome_normalizzato varchar(255)");
+            ddl.execute("ALTER TABLE contatto ADD COLUMN cognome_normalizzato varchar(255)");
+        }
+        try (Statement select = context.getConnection().createStatement();
+                ResultSet rows = select.executeQuery("SELECT id, nome, cognome FROM contatto");
+                PreparedStatement update = context.getConnection().prepareStatement(
+                        "UPDATE contatto SET nome_normalizzato = ?, cognome_normalizzato = ? WHERE id = ?")) {
+            int batch = 0;
+            while (rows.next()) {
+                update.setString(1, normalize(rows.getString("nome")));
+                update.setString(2, normalize(rows.getString("cognome")));
+                update.setLong(3, rows.getLong("id"));
+                update.addBatch();
+                if (++batch % 1000 == 0) {
+                    update.executeBatch();
+                }
+            }
+            update.executeBatch();
+        }
+    }
+
+    private static String normalize(String value) {
+        return value == null ? null : TextNormalizer.normalize(value);
+    }
+}
@@ -1,3 +1,3 @@
-INSERT INTO contatto (nome, cognome, telefono, email) VALUES
-('Mario','Rossi','123456789','mario.rossi@example.com'),
-('Luca','Bianchi','987654321','luca.bianchi@example.com');
\ No newline at end of file
+INSERT INTO contatto (id, tenant_id, nome, cognome, telefono, email, telefono_normalizzato, email_normalizzata, nome_normalizzato, cognome_normalizzato, version, updated_at) VALUES
+(NEXT VALUE FOR contatto_seq,'default','Mario','Rossi','123456789','mario.rossi@example.com','39123456789','mario.rossi@example.com','mario','rossi',0,CURRENT_TIMESTAMP),
+(NEXT VALUE FOR contatto_seq,'default','Luca','Bianchi','987654321','luca.bianchi@example.com','39987654321','luca.bianchi@example.com','luca','bianchi',0,CURRENT_TIMESTAMP);
@@ -0,0 +1,38 @@
+-- Schema iniziale per il profilo persistent (in memoria lo schema lo crea Hibernate).
+
+CREATE SEQUENCE contatto_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE contatto_change_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE contatto (
+    id bigint NOT NULL,
+    nome varchar(255),
+    cognome varchar(255),
+    telefono varchar(255),
+    email varchar(255),
+    telefono_normalizzato varchar(255),
+    email_normalizzata varchar(255),
+    version bigint,
+    updated_at timestamp(6) with time zone,
+    PRIMARY KEY (id)
+);
+
+-- findByCognome, findByNomeAndCognome e paginazione keyset (cognome, nome, id)
+CREATE INDEX idx_contatto_cognome_nome_id ON contatto (cognome, nome, id);
+-- findByNome
+CREATE INDEX idx_contatto_nome ON contatto (nome);
+-- lookup esatto per telefono ed email
+CREATE INDEX idx_contatto_telefono_norm ON contatto (telefono_normalizzato);
+CREATE INDEX idx_contatto_email_norm ON contatto (email_normalizzata);
+
+CREATE TABLE contatto_change (
+    id bigint NOT NULL,
+    tipo enum ('CREATED', 'DELETED', 'UPDATED'),
+    contatto_id bigint,
+    nome varchar(255),
+    cognome varchar(255),
+    telefono varchar(255),
+    email varchar(255),
+    version bigint,
+    changed_at timestamp(6) with time zone,
+    PRIMARY KEY (id)
+);
@@ -0,0 +1,23 @@
+-- Partizionamento per tenant: le righe esistenti passano al tenant "default" e gli indici
+-- iniziano tutti da tenant_id, così le query di un tenant leggono solo le sue righe.
+
+ALTER TABLE contatto ADD COLUMN tenant_id varchar(64) DEFAULT 'default' NOT NULL;
+ALTER TABLE contatto ALTER COLUMN tenant_id DROP DEFAULT;
+
+DROP INDEX idx_contatto_cognome_nome_id;
+DROP INDEX idx_contatto_nome;
+DROP INDEX idx_contatto_telefono_norm;
+DROP INDEX idx_contatto_email_norm;
+
+-- ricerche per cognome/nome e paginazione keyset (cognome, nome, id)
+CREATE INDEX idx_contatto_tenant_cognome_nome_id ON contatto (tenant_id, cognome, nome, id);
+CREATE INDEX idx_contatto_tenant_nome ON contatto (tenant_id, nome);
+-- lookup esatto per telefono ed email
+CREATE INDEX idx_contatto_tenant_telefono_norm ON contatto (tenant_id, telefono_normalizzato);
+CREATE INDEX idx_contatto_tenant_email_norm ON contatto (tenant_id, email_normalizzata);
+-- precaricamento della cache (modificati più di recente)
+CREATE INDEX idx_contatto_tenant_updated_at ON contatto (tenant_id, updated_at);
+
+ALTER TABLE contatto_change ADD COLUMN tenant_id varchar(64) DEFAULT 'default' NOT NULL;
+ALTER TABLE contatto_change ALTER COLUMN tenant_id DROP DEFAULT;
+CREATE INDEX idx_contatto_change_tenant_id ON contatto_change (tenant_id, id);
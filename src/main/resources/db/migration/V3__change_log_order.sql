@@ -0,0 +1,10 @@
+-- Ordine del change log condiviso tra i nodi: id assegnati uno alla volta dalla sequence e una riga
+-- bloccata da ogni transazione che scrive nel change log fino al commit.
+
+ALTER SEQUENCE contatto_change_seq INCREMENT BY 1;
+
+CREATE TABLE contatto_change_lock (
+    id bigint NOT NULL,
+    PRIMARY KEY (id)
+);
+INSERT INTO contatto_change_lock (id) VALUES (1);
@@ -0,0 +1,149 @@
+package com.example.rubrica.accesslog;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import com.example.rubrica.dto.ContattoResponse;
+import com.example.rubrica.model.Contatto;
+import com.example.rubrica.service.ContattoService;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+
+/**
+ * POST /api/contatti risponde sempre con un {@code CompletableFuture}: la riga di log va scritta
+ * dopo il dispatch asincrono, con lo stato vero e, in debug, senza togliere il body al client.
+ */
+@SpringBootTest(properties = "rubrica.access-log.endpoints.[/api/contatti]=0")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class AccessLogFilterTest {
+
+    private static final String BODY = """
+            {"nome":"Mario","cognome":"Rossi","telefono":"3331234567","email":"mario@ex.com"}""";
+
+    @Autowired
+    private MockMvc mvc;
+
+    @MockitoBean
+    private ContattoService service;
+
+    private final Logger accessLog = (Logger) LoggerFactory.getLogger("rubrica.access");
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+    @BeforeEach
+    void setup() {
+        appender.start();
+        accessLog.addAppender(appender);
+    }
+
+    @AfterEach
+    void tearDown() {
+        accessLog.detachAppender(appender);
+    }
+
+    private MvcResult insert(boolean debug) throws Exception {
+        MockHttpServletRequestBuilder builder = MockMvcRequestBuilders.post("/api/contatti")
+                .contentType(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON).content(BODY);
+        if (debug) {
+            builder.header(AccessLogFilter.DEBUG_HEADER, "true");
+        }
+        MvcResult result = mvc.perform(builder).andExpect(request().asyncStarted()).andReturn();
+        assertTrue(lines().isEmpty(), "niente log prima della fine della richiesta");
+        return result;
+    }
+
+    private List<String> lines() {
+        return appender.list.stream().map(ILoggingEvent::getFormattedMessage).toList();
+    }
+
+    @Test
+    void erroreAsincrono_registratoConLoStatoFinale() throws Exception {
+        when(service.insertContatto(any())).thenThrow(new IllegalStateException("database giù"));
+
+        mvc.perform(asyncDispatch(insert(false))).andExpect(status().isInternalServerError());
+
+        assertEquals(1, lines().size(), lines().toString());
+        assertTrue(lines().get(0).contains("method=POST uri=/api/contatti"), lines().get(0));
+        assertTrue(lines().get(0).contains("status=500"), lines().get(0));
+    }
+
+    @Test
+    void successoAsincrono_campionatoAZero_nonRegistrato() throws Exception {
+        when(service.insertContatto(any())).thenAnswer(inv -> withId(inv.getArgument(0)));
+
+        mvc.perform(asyncDispatch(insert(false))).andExpect(status().isCreated());
+
+        assertTrue(lines().isEmpty(), lines().toString());
+    }
+
+    @Test
+    void postInDebug_bodyAlClienteNelLog() throws Exception {
+        when(service.insertContatto(any())).thenAnswer(inv -> withId(inv.getArgument(0)));
+
+        mvc.perform(asyncDispatch(insert(true)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value(42))
+                .andExpect(jsonPath("$.nome").value("Mario"));
+
+        assertEquals(1, lines().size(), lines().toString());
+        String line = lines().get(0);
+        assertTrue(line.contains("status=201 "), line);
+        assertTrue(line.contains("debug=true"), line);
+        assertTrue(line.contains("requestBody=" + BODY), line);
+        assertTrue(line.contains("responseBody={\"id\":42"), line);
+    }
+
+    @Test
+    void exportInDebug_bodyNonTrattenuto() throws Exception {
+        when(service.exportAll(any())).thenAnswer(inv -> {
+            inv.<Consumer<ContattoResponse>>getArgument(0)
+                    .accept(new ContattoResponse(42L, "Mario", "Rossi", null, "mario@ex.com", 0L));
+            return 1L;
+        });
+
+        MvcResult result = mvc.perform(MockMvcRequestBuilders.get("/api/contatti/export")
+                .header(AccessLogFilter.DEBUG_HEADER, "true"))
+                .andExpect(request().asyncStarted()).andReturn();
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nome").value("Mario"));
+
+        assertEquals(1, lines().size(), lines().toString());
+        assertTrue(lines().get(0).contains("responseBody=(streaming)"), lines().get(0));
+    }
+
+    @Test
+    void headerDiDebug_spentoDiDefault() {
+        assertFalse(new AccessLogProperties().isDebugHeaderEnabled());
+    }
+
+    private static Contatto withId(Contatto contatto) {
+        contatto.setId(42L);
+        return contatto;
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.rubrica.bulk;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.example.rubrica.dto.BulkImportReport;
+import com.example.rubrica.dto.ContattoResponse;
+import com.example.rubrica.service.ContattoService;
+import com.example.rubrica.tenant.TenantContext;
+
+/** Ogni test importa in un tenant proprio, così i conteggi non dipendono dagli altri test. */
+@SpringBootTest(properties = "rubrica.import.batch-size=2")
+@ActiveProfiles("test")
+public class ContattoBulkImporterTest {
+
+    @Autowired
+    private ContattoBulkImporter importer;
+
+    @Autowired
+    private ContattoService service;
+
+    private final String tenant = "import-" + UUID.randomUUID();
+
+    private static InputStream body(String... lines) {
+        return new ByteArrayInputStream(String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private <T> T inTenant(Callable<T> action) {
+        return TenantContext.callAs(tenant, () -> {
+            try {
+                return action.call();
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    private List<String> cognomi() {
+        return TenantContext.callAs(tenant, service::findAll).stream().map(ContattoResponse::getCognome).sorted()
+                .toList();
+    }
+
+    private static List<Long> righeScartate(BulkImportReport report) {
+        return report.getErrors().stream().map(BulkImportReport.RowError::getRow).toList();
+    }
+
+    @Test
+    void ndjson_righeNullEMalformate_scartateSenzaInterrompereLImport() throws Exception {
+        BulkImportReport report = inTenant(() -> importer.importNdjson(body(
+                "{\"nome\":\"Mario\",\"cognome\":\"Rossi\",\"email\":\"mario@ex.com\"}",
+                "null",
+                "   ",
+                "{\"nome\":",
+                "{\"nome\":\"Anna\",\"cognome\":\"Bianchi\",\"email\":\"anna@ex.com\"}",
+                "{\"nome\":\"Luca\",\"cognome\":\"Neri\",\"email\":\"luca@ex.com\"} {\"nome\":\"X\"}",
+                "{\"nome\":\"Sara\",\"cognome\":\"\",\"email\":\"sara@ex.com\"}")));
+
+        assertEquals(6, report.getTotalRows(), "la riga vuota non conta");
+        assertEquals(2, report.getImported());
+        assertEquals(4, report.getRejected());
+        assertEquals(List.of(2L, 4L, 6L, 7L), righeScartate(report));
+        assertEquals(List.of("Bianchi", "Rossi"), cognomi());
+    }
+
+    @Test
+    void csv_piuBlocchi_righeNonValideScartate() {
+        BulkImportReport report = inTenant(() -> importer.importCsv(body(
+                "Nome,Cognome,Telefono,Email",
+                "Mario,Rossi,333 1234567,mario@ex.com",
+                "\"Anna, Maria\",Bianchi,,anna@ex.com",
+                "Luca,Neri,abc,luca@ex.com",
+                "",
+                "Sara,Verdi,,sara@ex.com",
+                "Paolo,Gialli,,non-una-email")));
+
+        assertEquals(5, report.getTotalRows());
+        assertEquals(3, report.getImported());
+        assertEquals(List.of(3L, 6L), righeScartate(report));
+        assertTrue(report.getErrors().get(0).getMessages().get(0).startsWith("telefono: "));
+        assertEquals(List.of("Bianchi", "Rossi", "Verdi"), cognomi());
+    }
+
+    @Test
+    void csv_conBom_intestazioneRiconosciuta() {
+        BulkImportReport report = inTenant(() -> importer.importCsv(body(
+                "\uFEFFnome,cognome,telefono,email",
+                "Mario,Rossi,,mario@ex.com")));
+
+        assertEquals(1, report.getImported());
+        assertEquals(List.of("Rossi"), cognomi());
+    }
+
+    @Test
+    void csv_intestazioneNonValida() {
+        assertThrows(IllegalArgumentException.class,
+                () -> inTenant(() -> importer.importCsv(body("nome,cognome", "Mario,Rossi"))));
+    }
+}
@@ -0,0 +1,219 @@
+package com.example.rubrica.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.rubrica.dto.ContattoResponse;
+import com.example.rubrica.routing.ReplicaRoutingDataSource;
+import com.example.rubrica.service.event.ContattoEvent;
+import com.example.rubrica.tenant.TenantContext;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Più nodi nella stessa JVM, ognuno con la sua cache, collegati dallo stesso bus in memoria. Gli
+ * eventi che Spring consegnerebbe dopo il commit vengono passati a mano ai listener del nodo.
+ */
+public class ContattoCacheInvalidatorTest {
+
+    private final LoopbackInvalidationBus loopback = new LoopbackInvalidationBus();
+    private final List<CacheInvalidation> messages = new CopyOnWriteArrayList<>();
+    private final InvalidationBus bus = new InvalidationBus() {
+        @Override
+        public void publish(CacheInvalidation invalidation) {
+            loopback.publish(invalidation);
+            messages.add(invalidation);
+        }
+
+        @Override
+        public void subscribe(Consumer<CacheInvalidation> listener) {
+            loopback.subscribe(listener);
+        }
+    };
+    private final List<Node> nodes = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        for (Node node : nodes) {
+            node.invalidator.stop();
+        }
+    }
+
+    private Node node(String name, Duration linger, int maxBatchSize) {
+        return node(name, linger, maxBatchSize, null);
+    }
+
+    private Node node(String name, Duration linger, int maxBatchSize, ReplicaRoutingDataSource routing) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.registerCustomCache(ContattoCache.CONTATTI, Caffeine.newBuilder().build());
+        cacheManager.registerCustomCache(ContattoCache.CONTATTI_MANCANTI, Caffeine.newBuilder().build());
+        InvalidationProperties properties = new InvalidationProperties();
+        properties.setEnabled(true);
+        properties.setNodeId(name);
+        properties.setLinger(linger);
+        properties.setMaxBatchSize(maxBatchSize);
+        ContattoCache cache = new ContattoCache(cacheManager);
+        ContattoRevisions revisions = new ContattoRevisions();
+        Node node = new Node(cache, revisions, new ContattoCacheInvalidator(cache, revisions, bus, properties,
+                routing, new SimpleMeterRegistry()));
+        nodes.add(node);
+        return node;
+    }
+
+    private static ContattoResponse contatto(long id, String nome) {
+        return new ContattoResponse(id, nome, "Rossi", "111", "mario@ex.com", 0L);
+    }
+
+    @Test
+    void modificaSuUnNodo_invalidaLaCacheDegliAltri() {
+        Node a = node("a", Duration.ofMinutes(1), 1000);
+        Node b = node("b", Duration.ofMinutes(1), 1000);
+        Node c = node("c", Duration.ofMinutes(1), 1000);
+        for (Node node : nodes) {
+            node.cache.get(1L, id -> Optional.of(contatto(id, "Mario")));
+            TenantContext.runAs("acme", () -> node.cache.get(1L, id -> Optional.of(contatto(id, "Acme"))));
+        }
+        long revisionB = b.revisions.current();
+
+        a.commit(ContattoEvent.updated(contatto(1, "Mariano")));
+        a.invalidator.flush();
+
+        AtomicInteger loads = new AtomicInteger();
+        assertEquals("Mariano", b.cache.get(1L, id -> {
+            loads.incrementAndGet();
+            return Optional.of(contatto(id, "Mariano"));
+        }).orElseThrow().getNome());
+        assertEquals(1, loads.get(), "b rilegge dal database");
+        assertTrue(b.revisions.current() > revisionB, "le liste di b non possono più rispondere 304");
+        assertEquals("Mariano", c.cache.get(1L, id -> Optional.of(contatto(id, "Mariano"))).orElseThrow().getNome());
+        assertEquals("Mariano", a.cache.get(1L, id -> fail("a ha già il valore nuovo")).orElseThrow().getNome());
+        assertEquals("Acme", TenantContext.callAs("acme",
+                () -> b.cache.get(1L, id -> fail("altro tenant, stessa chiave"))).orElseThrow().getNome());
+
+        a.commit(ContattoEvent.deleted(1L));
+        a.invalidator.flush();
+        assertTrue(b.cache.get(1L, id -> Optional.empty()).isEmpty());
+        assertTrue(b.cache.get(1L, id -> fail("ora è nota come mancante")).isEmpty());
+    }
+
+    @Test
+    void raffica_diventaUnSoloMessaggio_conLeChiaviFuse() {
+        Node a = node("a", Duration.ofMinutes(1), 1000);
+        node("b", Duration.ofMinutes(1), 1000);
+
+        for (int i = 0; i < 10_000; i++) {
+            a.commit(ContattoEvent.updated(contatto(i % 50, "v" + i)));
+        }
+        a.invalidator.flush();
+
+        assertEquals(1, messages.size());
+        assertEquals(50, messages.get(0).keys().size());
+        assertEquals("a", messages.get(0).origin());
+    }
+
+    @Test
+    void blocchi_partonoDopoLinger_oAppenaPieni() throws InterruptedException {
+        Node a = node("a", Duration.ofMillis(20), 1000);
+        Node b = node("b", Duration.ofMillis(20), 1000);
+        b.cache.get(7L, id -> Optional.of(contatto(id, "Mario")));
+
+        a.commit(ContattoEvent.updated(contatto(7, "Mariano")));
+        awaitMessages(1);
+        assertEquals("Mariano", b.cache.get(7L, id -> Optional.of(contatto(id, "Mariano"))).orElseThrow().getNome());
+
+        Node c = node("c", Duration.ofMinutes(1), 10);
+        messages.clear();
+        for (long id = 100; id < 125; id++) {
+            c.commit(ContattoEvent.created(contatto(id, "Nuovo")));
+        }
+        awaitMessages(1);
+        assertTrue(messages.stream().allMatch(m -> m.keys().size() <= 10), "nessun messaggio oltre max-batch-size");
+    }
+
+    @Test
+    void invalidazioneRicevuta_apreLaFinestraReadYourWrites_soloPerQuelTenant() {
+        List<DataSource> databases = List.of(database("primary"), database("replica"));
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(databases.get(0), databases.subList(1, 2),
+                Duration.ofMinutes(1), new SimpleMeterRegistry());
+        routing.afterPropertiesSet();
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        TransactionTemplate readOnlyTx = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        readOnlyTx.setReadOnly(true);
+        Supplier<String> readNode = () -> readOnlyTx.execute(
+                status -> jdbc.queryForObject("SELECT nome FROM nodo", String.class));
+        try {
+            Node a = node("a", Duration.ofMinutes(1), 1000);
+            node("b", Duration.ofMinutes(1), 1000, routing);
+            assertEquals("replica", TenantContext.callAs("acme", readNode::get));
+
+            // la scrittura è su a: la replica vista da b può non averla ancora
+            TenantContext.runAs("acme", () -> a.commit(ContattoEvent.updated(contatto(1, "Mariano"))));
+            a.invalidator.flush();
+
+            assertEquals("primary", TenantContext.callAs("acme", readNode::get));
+            assertEquals("replica", TenantContext.callAs("globex", readNode::get));
+        } finally {
+            databases.forEach(db -> new JdbcTemplate(db).execute("SHUTDOWN"));
+        }
+    }
+
+    @Test
+    void dopoStop_ilCommitPubblicaSubito() throws InterruptedException {
+        Node a = node("a", Duration.ofMinutes(1), 1000);
+        Node b = node("b", Duration.ofMinutes(1), 1000);
+        b.cache.get(1L, id -> Optional.of(contatto(id, "Mario")));
+
+        a.invalidator.stop();
+        a.commit(ContattoEvent.updated(contatto(1, "Mariano")));
+
+        assertEquals(1, messages.size(), "pubblicato senza attendere il linger");
+        assertEquals("Mariano", b.cache.get(1L, id -> Optional.of(contatto(id, "Mariano"))).orElseThrow().getNome());
+    }
+
+    private static DataSource database(String name) {
+        DataSource db = new SimpleDriverDataSource(new org.h2.Driver(),
+                "jdbc:h2:mem:invalidation-" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate init = new JdbcTemplate(db);
+        init.execute("CREATE TABLE nodo (nome VARCHAR(20))");
+        init.update("INSERT INTO nodo VALUES (?)", name);
+        return db;
+    }
+
+    private void awaitMessages(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (messages.size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertTrue(messages.size() >= count, "messaggi pubblicati: " + messages.size());
+    }
+
+    private record Node(ContattoCache cache, ContattoRevisions revisions, ContattoCacheInvalidator invalidator) {
+
+        void commit(ContattoEvent event) {
+            cache.onContattoEvent(event);
+            revisions.onContattoEvent(event);
+            invalidator.onContattoEvent(event);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.rubrica.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+
+import com.example.rubrica.dto.ContattoResponse;
+import com.example.rubrica.service.event.ContattoEvent;
+import com.example.rubrica.tenant.TenantContext;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Eventi dopo il commit e caricamenti dal database in ordine qualunque: i loader simulano una
+ * scrittura committata mentre la lettura era in corso.
+ */
+public class ContattoCacheTest {
+
+    private ContattoCache cache;
+
+    @BeforeEach
+    void setup() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.registerCustomCache(ContattoCache.CONTATTI, Caffeine.newBuilder().build());
+        cacheManager.registerCustomCache(ContattoCache.CONTATTI_MANCANTI, Caffeine.newBuilder().build());
+        cache = new ContattoCache(cacheManager);
+    }
+
+    private static ContattoResponse contatto(long id, String nome, long version) {
+        return new ContattoResponse(id, nome, "Rossi", "111", "mario@ex.com", version);
+    }
+
+    private Optional<ContattoResponse> cached(long id) {
+        return cache.get(id, i -> fail("atteso dalla cache"));
+    }
+
+    @Test
+    void cancellazioneDuranteIlCaricamento_nonRimetteIlContattoInCache() {
+        Optional<ContattoResponse> loaded = cache.get(1L, id -> {
+            cache.onContattoEvent(ContattoEvent.deleted(id));
+            return Optional.of(contatto(id, "Mario", 0));
+        });
+
+        assertEquals("Mario", loaded.orElseThrow().getNome(), "il chiamante riceve comunque ciò che ha letto");
+        assertTrue(cached(1L).isEmpty());
+    }
+
+    @Test
+    void aggiornamentoInRitardo_dopoLaCancellazione_ignorato() {
+        cache.put(TenantContext.DEFAULT, contatto(1, "Mario", 0));
+        cache.onContattoEvent(ContattoEvent.deleted(1L));
+        cache.onContattoEvent(ContattoEvent.updated(contatto(1, "Mariano", 1)));
+
+        assertTrue(cached(1L).isEmpty());
+    }
+
+    @Test
+    void eventiFuoriOrdine_vinceLaVersionePiuRecente() {
+        cache.onContattoEvent(ContattoEvent.updated(contatto(1, "Terzo", 3)));
+        cache.onContattoEvent(ContattoEvent.updated(contatto(1, "Secondo", 2)));
+
+        assertEquals("Terzo", cached(1L).orElseThrow().getNome());
+    }
+
+    @Test
+    void caricamentoVecchio_nonSovrascriveLaModificaCommittataNelFrattempo() {
+        cache.get(1L, id -> {
+            cache.onContattoEvent(ContattoEvent.updated(contatto(id, "Nuovo", 5)));
+            return Optional.of(contatto(id, "Vecchio", 4));
+        });
+        assertEquals("Nuovo", cached(1L).orElseThrow().getNome());
+
+        cache.getAll(List.of(2L), ids -> {
+            cache.onContattoEvent(ContattoEvent.updated(contatto(2, "Nuovo", 1)));
+            return Map.of(2L, contatto(2, "Vecchio", 0));
+        });
+        assertEquals("Nuovo", cached(2L).orElseThrow().getNome());
+    }
+
+    @Test
+    void nonTrovato_poiCreato_servitoDallaCache() {
+        assertTrue(cache.get(7L, id -> Optional.empty()).isEmpty());
+        assertTrue(cached(7L).isEmpty(), "ora è noto come mancante");
+
+        cache.onContattoEvent(ContattoEvent.created(contatto(7, "Nuovo", 0)));
+        assertEquals("Nuovo", cached(7L).orElseThrow().getNome());
+    }
+
+    @Test
+    void precaricamento_nonSovrascriveNeRiportaInVita() {
+        cache.put(TenantContext.DEFAULT, contatto(1, "Attuale", 2));
+        cache.putIfAbsent(TenantContext.DEFAULT, contatto(1, "Vecchio", 1));
+        assertEquals("Attuale", cached(1L).orElseThrow().getNome());
+
+        cache.evict(TenantContext.DEFAULT, 2L);
+        cache.putIfAbsent(TenantContext.DEFAULT, contatto(2, "Cancellato", 0));
+        assertTrue(cached(2L).isEmpty());
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.rubrica.changes;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.rubrica.dto.ChangeBatch;
+import com.example.rubrica.dto.ContattoChangeResponse;
+import com.example.rubrica.model.Contatto;
+import com.example.rubrica.service.ContattoService;
+
+/**
+ * Una transazione lenta prende il suo id e si ferma prima del commit; una veloce parte dopo. Il
+ * lettore non deve mai vedere la veloce senza la lenta, altrimenti il suo token salterebbe la lenta.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public class ContattoChangeLogTest {
+
+    @Autowired
+    private ContattoChangeLog changeLog;
+
+    @Autowired
+    private ContattoService service;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void commitFuoriOrdine_nessunaModificaSaltata() throws Exception {
+        String start = changeLog.headToken();
+        CountDownLatch beforeCommit = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(2)) {
+            Future<Long> slow = executor.submit(() -> tx.execute(status -> {
+                Long id = service.insertContatto(new Contatto(null, "Lento", "Ordine", "111", "lento@ex.com")).getId();
+                // registrata dopo quella del change log: l'id è già assegnato quando si ferma
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void beforeCommit(boolean readOnly) {
+                        beforeCommit.countDown();
+                        try {
+                            release.await(10, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                });
+                return id;
+            }));
+            assertTrue(beforeCommit.await(10, TimeUnit.SECONDS));
+
+            Future<Long> fast = executor.submit(
+                    () -> service.insertContatto(new Contatto(null, "Veloce", "Ordine", "222", "veloce@ex.com")).getId());
+            Thread.sleep(300);
+            assertFalse(fast.isDone(), "la veloce non può committare prima della lenta");
+            ChangeBatch during = changeLog.read(start, 100);
+            assertTrue(during.getChanges().isEmpty());
+            assertEquals(start, during.getNextToken());
+
+            release.countDown();
+            Long slowId = slow.get(10, TimeUnit.SECONDS);
+            Long fastId = fast.get(10, TimeUnit.SECONDS);
+
+            ChangeBatch after = changeLog.read(during.getNextToken(), 100);
+            assertEquals(List.of(slowId, fastId), after.getChanges().stream().map(ContattoChangeResponse::getId).toList());
+            assertTrue(ChangeToken.decode(after.getChanges().get(0).getToken()).lastId()
+                    < ChangeToken.decode(after.getChanges().get(1).getToken()).lastId());
+            assertTrue(changeLog.read(after.getNextToken(), 100).getChanges().isEmpty());
+        } finally {
+            release.countDown();
+        }
+    }
+}
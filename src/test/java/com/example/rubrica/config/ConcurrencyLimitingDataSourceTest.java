@@ -0,0 +1,35 @@
+package com.example.rubrica.config;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+
+public class ConcurrencyLimitingDataSourceTest {
+
+    private final ConcurrencyLimitingDataSource dataSource = new ConcurrencyLimitingDataSource(
+            new SimpleDriverDataSource(new org.h2.Driver(), "jdbc:h2:mem:limit", "sa", ""), 1, 50);
+
+    @Test
+    void oltreIlLimite_attendeEPoiFallisce() throws Exception {
+        try (Connection first = dataSource.getConnection()) {
+            assertEquals(0, dataSource.getAvailablePermits());
+            assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+        }
+        try (Connection second = dataSource.getConnection()) {
+            assertTrue(second.isValid(1));
+        }
+        assertEquals(1, dataSource.getAvailablePermits());
+    }
+
+    @Test
+    void doppiaChiusura_restituisceUnSoloPermesso() throws Exception {
+        Connection connection = dataSource.getConnection();
+        connection.close();
+        connection.close();
+        assertEquals(1, dataSource.getAvailablePermits());
+    }
+}
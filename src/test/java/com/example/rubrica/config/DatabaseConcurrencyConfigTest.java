@@ -0,0 +1,31 @@
+package com.example.rubrica.config;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+public class DatabaseConcurrencyConfigTest {
+
+    private final int carriers = Integer.getInteger("jdk.virtualThreadScheduler.parallelism",
+            Runtime.getRuntime().availableProcessors());
+
+    @Test
+    void threadDiPiattaforma_limiteUgualeAlPool() {
+        MockEnvironment env = new MockEnvironment()
+                .withProperty("spring.datasource.hikari.maximum-pool-size", String.valueOf(carriers + 20));
+
+        assertEquals(carriers + 20, DatabaseConcurrencyConfig.defaultMaxConcurrency(env));
+    }
+
+    @Test
+    void virtualThread_limiteNonOltreICarrier() {
+        MockEnvironment env = new MockEnvironment()
+                .withProperty("spring.threads.virtual.enabled", "true")
+                .withProperty("spring.datasource.hikari.maximum-pool-size", String.valueOf(carriers + 20));
+        assertEquals(carriers, DatabaseConcurrencyConfig.defaultMaxConcurrency(env));
+
+        env.setProperty("spring.datasource.hikari.maximum-pool-size", "1");
+        assertEquals(1, DatabaseConcurrencyConfig.defaultMaxConcurrency(env), "pool più piccolo dei carrier");
+    }
+}
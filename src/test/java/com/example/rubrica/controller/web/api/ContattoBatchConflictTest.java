@@ -0,0 +1,47 @@
+package com.example.rubrica.controller.web.api;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.example.rubrica.model.Contatto;
+import com.example.rubrica.service.ContattoService;
+
+/**
+ * Un conflitto di versione rilevato al flush annulla tutto il batch: il controller risponde 409
+ * senza esiti per elemento. Il conflitto è simulato dal service, perché riprodurlo davvero richiede
+ * una scrittura concorrente tra la SELECT e il flush.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class ContattoBatchConflictTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @MockitoBean
+    private ContattoService service;
+
+    @Test
+    void batchUpdate_conflittoAlFlush_409() throws Exception {
+        when(service.updateAll(anyList())).thenThrow(new ObjectOptimisticLockingFailureException(Contatto.class, 1L));
+
+        mvc.perform(put("/api/contatti/batch").contentType(MediaType.APPLICATION_JSON).content("""
+                [{"id":1,"contatto":{"nome":"Mario","cognome":"Rossi","email":"mario@ex.com"}}]"""))
+                .andExpect(status().isConflict())
+                .andExpect(content().string(""));
+    }
+}
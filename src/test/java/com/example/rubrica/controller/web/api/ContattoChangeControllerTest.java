@@ -0,0 +1,185 @@
+package com.example.rubrica.controller.web.api;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import com.example.rubrica.dto.ContattoRequest;
+import com.example.rubrica.model.Contatto;
+import com.example.rubrica.service.ContattoService;
+import com.example.rubrica.tenant.TenantContext;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Feed delle modifiche visto dal client: token dalla lista completa, blocchi successivi, long-poll e
+ * stream SSE. Ogni test usa un tenant proprio, quindi vede solo le proprie modifiche.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class ContattoChangeControllerTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private ContattoService service;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final String tenant = "feed-" + UUID.randomUUID();
+
+    private Contatto insert(String nome) {
+        return TenantContext.callAs(tenant, () -> service.insertContatto(
+                new Contatto(null, nome, "Rossi", null, nome.toLowerCase() + "@ex.com")));
+    }
+
+    private MockHttpServletRequestBuilder inTenant(MockHttpServletRequestBuilder request) {
+        return request.header("X-Tenant-ID", tenant);
+    }
+
+    /** Token restituito con la lista completa, da cui il client segue il feed. */
+    private String changeToken() throws Exception {
+        return mvc.perform(inTenant(get("/api/contatti")))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(ContattoChangeController.CHANGE_TOKEN_HEADER);
+    }
+
+    private MvcResult startChanges(MockHttpServletRequestBuilder request) throws Exception {
+        return mvc.perform(inTenant(request)).andExpect(request().asyncStarted()).andReturn();
+    }
+
+    private JsonNode finish(MvcResult started) throws Exception {
+        String body = mvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+        return objectMapper.readTree(body);
+    }
+
+    private JsonNode changes(String since, int limit) throws Exception {
+        return finish(startChanges(get("/api/contatti/changes").param("since", since)
+                .param("limit", String.valueOf(limit))));
+    }
+
+    /** Lo stream non termina: si attende che gli eventi attesi compaiano nel corpo già scritto. */
+    private static String awaitStream(MvcResult stream, String expected) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        String content = stream.getResponse().getContentAsString(StandardCharsets.UTF_8);
+        while (!content.contains(expected) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            content = stream.getResponse().getContentAsString(StandardCharsets.UTF_8);
+        }
+        assertTrue(content.contains(expected), content);
+        return content;
+    }
+
+    @Test
+    void token_ripresa_soloLeModificheSuccessive() throws Exception {
+        Contatto mario = insert("Mario");
+        String token = changeToken();
+        insert("Anna");
+        ContattoRequest marco = new ContattoRequest();
+        marco.setNome("Marco");
+        marco.setCognome("Rossi");
+        marco.setEmail("mario@ex.com");
+        TenantContext.runAs(tenant, () -> service.updateContatto(mario.getId(), marco));
+
+        JsonNode first = changes(token, 1);
+        assertEquals(1, first.get("changes").size());
+        assertEquals("CREATED", first.at("/changes/0/type").asText());
+        assertEquals("Anna", first.at("/changes/0/contatto/nome").asText());
+        assertTrue(first.get("hasMore").asBoolean());
+        assertEquals(first.at("/changes/0/token").asText(), first.get("nextToken").asText());
+
+        JsonNode second = changes(first.get("nextToken").asText(), 10);
+        assertEquals(1, second.get("changes").size());
+        assertEquals("UPDATED", second.at("/changes/0/type").asText());
+        assertEquals(mario.getId().longValue(), second.at("/changes/0/id").asLong());
+        assertFalse(second.get("hasMore").asBoolean());
+
+        JsonNode empty = changes(second.get("nextToken").asText(), 10);
+        assertEquals(0, empty.get("changes").size());
+        assertEquals(second.get("nextToken").asText(), empty.get("nextToken").asText(), "token invariato");
+    }
+
+    @Test
+    void parametriNonValidi_400() throws Exception {
+        for (MockHttpServletRequestBuilder request : new MockHttpServletRequestBuilder[] {
+                get("/api/contatti/changes").param("limit", "0"),
+                get("/api/contatti/changes").param("wait", "61"),
+                get("/api/contatti/changes").param("since", "non-un-token") }) {
+            mvc.perform(asyncDispatch(startChanges(request))).andExpect(status().isBadRequest());
+        }
+        mvc.perform(inTenant(get("/api/contatti/changes/stream")).header("Last-Event-ID", "non-un-token"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void longPoll_scadenza_bloccoVuotoConLoStessoToken() throws Exception {
+        String token = changeToken();
+
+        long start = System.nanoTime();
+        JsonNode batch = finish(startChanges(get("/api/contatti/changes").param("since", token).param("wait", "1")));
+
+        assertTrue(System.nanoTime() - start >= 900_000_000L, "risposta solo allo scadere dell'attesa");
+        assertEquals(0, batch.get("changes").size());
+        assertEquals(token, batch.get("nextToken").asText());
+        assertFalse(batch.get("hasMore").asBoolean());
+    }
+
+    @Test
+    void longPoll_commitDuranteLAttesa_rispondeSubito() throws Exception {
+        String token = changeToken();
+        MvcResult started = startChanges(get("/api/contatti/changes").param("since", token).param("wait", "30"));
+
+        insert("Mario");
+
+        // il risultato asincrono è atteso al massimo 10 secondi, ben prima dei 30 di wait
+        JsonNode batch = finish(started);
+        assertEquals(1, batch.get("changes").size());
+        assertEquals("Mario", batch.at("/changes/0/contatto/nome").asText());
+    }
+
+    @Test
+    void stream_lastEventId_riparteDopoLUltimoEventoRicevuto() throws Exception {
+        String token = changeToken();
+        insert("Mario");
+        insert("Anna");
+        JsonNode arretrati = changes(token, 10);
+        String marioToken = arretrati.at("/changes/0/token").asText();
+        String annaToken = arretrati.at("/changes/1/token").asText();
+
+        // Last-Event-ID vince su since: Mario è già stato ricevuto
+        MvcResult stream = mvc.perform(inTenant(get("/api/contatti/changes/stream"))
+                .param("since", token)
+                .header("Last-Event-ID", marioToken)
+                .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        awaitStream(stream, "id:" + annaToken + "\n");
+        insert("Luca");
+        String content = awaitStream(stream, "\"nome\":\"Luca\"");
+
+        assertTrue(content.contains("event:CREATED\n"), content);
+        assertTrue(content.indexOf("\"nome\":\"Anna\"") < content.indexOf("\"nome\":\"Luca\""), content);
+        assertFalse(content.contains("\"nome\":\"Mario\""), content);
+    }
+}
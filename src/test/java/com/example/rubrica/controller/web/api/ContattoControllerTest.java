@@ -0,0 +1,300 @@
+package com.example.rubrica.controller.web.api;
+
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import com.example.rubrica.model.Contatto;
+import com.example.rubrica.service.ContattoService;
+import com.example.rubrica.tenant.TenantContext;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/** Ogni test lavora in un tenant proprio, così i dati degli altri test non compaiono nelle risposte. */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class ContattoControllerTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private ContattoService service;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final String tenant = "ctrl-" + UUID.randomUUID();
+
+    private Contatto insert(String nome, String cognome, String telefono, String email) {
+        return TenantContext.callAs(tenant,
+                () -> service.insertContatto(new Contatto(null, nome, cognome, telefono, email)));
+    }
+
+    private MockHttpServletRequestBuilder inTenant(MockHttpServletRequestBuilder request) {
+        return request.header("X-Tenant-ID", tenant);
+    }
+
+    /** Export completo: dispatch iniziale, poi il corpo scritto dal task asincrono. */
+    private MvcResult export(MockHttpServletRequestBuilder request) throws Exception {
+        MvcResult started = mvc.perform(inTenant(request))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.VARY, "Accept, X-Tenant-ID"))
+                .andReturn();
+    }
+
+    private static String body(MvcResult result) throws Exception {
+        return result.getResponse().getContentAsString(StandardCharsets.UTF_8);
+    }
+
+    private MockHttpServletRequestBuilder update(Long id, String nome) {
+        return inTenant(put("/api/contatti/{id}", id).contentType(MediaType.APPLICATION_JSON).content("""
+                {"nome":"%s","cognome":"Rossi","telefono":"333 1234567","email":"mario@ex.com"}""".formatted(nome)));
+    }
+
+    private void insertMarioEAnna() {
+        insert("Mario", "Rossi", "333 1234567", "mario@ex.com");
+        insert("Anna, Maria", "Bianchi \"Bice\"", null, "anna@ex.com");
+    }
+
+    @Test
+    void search_senzaFiltri_400ConMessaggio() throws Exception {
+        mvc.perform(get("/api/contatti/search").param("nome", " "))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_PROBLEM_JSON))
+                .andExpect(jsonPath("$.detail").value("Serve almeno un filtro tra nome, cognome, email, telefono e q"));
+    }
+
+    @Test
+    void export_ndjson_unaRigaPerContatto() throws Exception {
+        insertMarioEAnna();
+
+        MvcResult result = export(get("/api/contatti/export"));
+
+        assertEquals("application/x-ndjson", result.getResponse().getContentType());
+        List<String> lines = body(result).lines().toList();
+        assertEquals(2, lines.size());
+        assertEquals("Mario", objectMapper.readTree(lines.get(0)).get("nome").asText());
+        assertEquals("Bianchi \"Bice\"", objectMapper.readTree(lines.get(1)).get("cognome").asText());
+    }
+
+    @Test
+    void export_json_unArray() throws Exception {
+        insertMarioEAnna();
+
+        MvcResult result = export(get("/api/contatti/export").param("format", "json"));
+
+        assertEquals(MediaType.APPLICATION_JSON_VALUE, result.getResponse().getContentType());
+        JsonNode contatti = objectMapper.readTree(body(result));
+        assertTrue(contatti.isArray());
+        assertEquals(List.of("Mario", "Anna, Maria"), contatti.findValuesAsText("nome"));
+    }
+
+    @Test
+    void export_csv_campiTraVirgolette() throws Exception {
+        Contatto mario = insert("Mario", "Rossi", "333 1234567", "mario@ex.com");
+        Contatto anna = insert("Anna, Maria", "Bianchi \"Bice\"", null, "anna@ex.com");
+
+        MvcResult result = export(get("/api/contatti/export").param("format", "csv"));
+
+        assertEquals("text/csv", result.getResponse().getContentType());
+        assertEquals("id,nome,cognome,telefono,email\n"
+                + mario.getId() + ",Mario,Rossi,333 1234567,mario@ex.com\n"
+                + anna.getId() + ",\"Anna, Maria\",\"Bianchi \"\"Bice\"\"\",,anna@ex.com\n", body(result));
+    }
+
+    @Test
+    void export_formatoDaAccept() throws Exception {
+        insertMarioEAnna();
+
+        MvcResult csv = export(get("/api/contatti/export").header(HttpHeaders.ACCEPT, "application/json;q=0.5, text/csv"));
+        assertEquals("text/csv", csv.getResponse().getContentType());
+        assertTrue(body(csv).startsWith("id,nome,cognome,telefono,email\n"));
+
+        MvcResult json = export(get("/api/contatti/export").header(HttpHeaders.ACCEPT, "text/html, application/json"));
+        assertEquals(MediaType.APPLICATION_JSON_VALUE, json.getResponse().getContentType());
+
+        MvcResult param = export(get("/api/contatti/export").param("format", "ndjson")
+                .header(HttpHeaders.ACCEPT, "text/csv"));
+        assertEquals("application/x-ndjson", param.getResponse().getContentType(), "format vince su Accept");
+
+        mvc.perform(inTenant(get("/api/contatti/export").header(HttpHeaders.ACCEPT, "application/xml")))
+                .andExpect(status().isNotAcceptable());
+    }
+
+    @Test
+    void get_ifNoneMatch_304FinoAllaModifica() throws Exception {
+        Contatto mario = insert("Mario", "Rossi", "333 1234567", "mario@ex.com");
+
+        String etag = mvc.perform(inTenant(get("/api/contatti/{id}", mario.getId())))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertEquals("\"" + mario.getVersion() + "\"", etag);
+
+        mvc.perform(inTenant(get("/api/contatti/{id}", mario.getId())).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        mvc.perform(update(mario.getId(), "Marco")).andExpect(status().isOk());
+
+        mvc.perform(inTenant(get("/api/contatti/{id}", mario.getId())).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nome").value("Marco"));
+    }
+
+    @Test
+    void lista_ifNoneMatch_etagDeboleDelleRevisioni() throws Exception {
+        insert("Mario", "Rossi", "333 1234567", "mario@ex.com");
+
+        String etag = mvc.perform(inTenant(get("/api/contatti")))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.VARY, "Accept, X-Tenant-ID"))
+                .andExpect(header().exists(ContattoChangeController.CHANGE_TOKEN_HEADER))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertTrue(etag.startsWith("W/\""), etag);
+
+        mvc.perform(inTenant(get("/api/contatti")).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        // lo stesso ETag sotto un altro tenant non è una copia valida
+        mvc.perform(get("/api/contatti").header("X-Tenant-ID", tenant + "-altro").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+
+        insert("Anna", "Bianchi", null, "anna@ex.com");
+
+        mvc.perform(inTenant(get("/api/contatti")).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2));
+    }
+
+    @Test
+    void put_ifMatch_412SeLaVersioneNonCoincide() throws Exception {
+        Contatto mario = insert("Mario", "Rossi", "333 1234567", "mario@ex.com");
+        String etag = "\"" + mario.getVersion() + "\"";
+
+        String attuale = mvc.perform(update(mario.getId(), "Marco").header(HttpHeaders.IF_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nome").value("Marco"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(etag, attuale);
+
+        // il vecchio ETag non corrisponde più, e nemmeno la forma debole di quello attuale
+        mvc.perform(update(mario.getId(), "Luca").header(HttpHeaders.IF_MATCH, etag))
+                .andExpect(status().isPreconditionFailed());
+        mvc.perform(update(mario.getId(), "Luca").header(HttpHeaders.IF_MATCH, "W/" + attuale))
+                .andExpect(status().isPreconditionFailed());
+
+        mvc.perform(inTenant(get("/api/contatti/{id}", mario.getId())))
+                .andExpect(jsonPath("$.nome").value("Marco"))
+                .andExpect(header().string(HttpHeaders.ETAG, attuale));
+    }
+
+    @Test
+    void put_ifMatchAsterisco_aggiornaSenzaControllo() throws Exception {
+        Contatto mario = insert("Mario", "Rossi", "333 1234567", "mario@ex.com");
+        mvc.perform(update(mario.getId(), "Marco")).andExpect(status().isOk());
+
+        mvc.perform(update(mario.getId(), "Luca").header(HttpHeaders.IF_MATCH, "*"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nome").value("Luca"))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + (mario.getVersion() + 2) + "\""));
+
+        mvc.perform(update(Long.MAX_VALUE, "Luca").header(HttpHeaders.IF_MATCH, "*"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void batchGet_idMancanti_404PerElemento() throws Exception {
+        Contatto mario = insert("Mario", "Rossi", "333 1234567", "mario@ex.com");
+
+        mvc.perform(inTenant(post("/api/contatti/batch/get").contentType(MediaType.APPLICATION_JSON)
+                .content("[" + Long.MAX_VALUE + "," + mario.getId() + "]")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].id").value(Long.MAX_VALUE))
+                .andExpect(jsonPath("$[0].status").value(404))
+                .andExpect(jsonPath("$[0].contatto").doesNotExist())
+                .andExpect(jsonPath("$[1].status").value(200))
+                .andExpect(jsonPath("$[1].contatto.nome").value("Mario"));
+    }
+
+    @Test
+    void batchUpdate_esitoPerElemento_applicaSoloQuelliValidi() throws Exception {
+        Contatto mario = insert("Mario", "Rossi", "333 1234567", "mario@ex.com");
+        Contatto anna = insert("Anna", "Bianchi", null, "anna@ex.com");
+        Contatto luca = insert("Luca", "Verdi", null, "luca@ex.com");
+        mvc.perform(update(luca.getId(), "Luca")).andExpect(status().isOk());
+
+        mvc.perform(inTenant(put("/api/contatti/batch").contentType(MediaType.APPLICATION_JSON).content("""
+                [
+                  {"id":%d,"version":%d,"contatto":{"nome":"Marco","cognome":"Rossi","email":"mario@ex.com"}},
+                  {"id":%d,"contatto":{"nome":"Anna","cognome":"Bianchi","email":"non-valida"}},
+                  {"id":%d,"contatto":{"nome":"Ugo","cognome":"Neri","email":"ugo@ex.com"}},
+                  {"id":%d,"version":%d,"contatto":{"nome":"Luigi","cognome":"Verdi","email":"luca@ex.com"}}
+                ]""".formatted(mario.getId(), mario.getVersion(), anna.getId(), Long.MAX_VALUE,
+                        luca.getId(), luca.getVersion()))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value(200))
+                .andExpect(jsonPath("$[0].contatto.nome").value("Marco"))
+                .andExpect(jsonPath("$[1].status").value(400))
+                .andExpect(jsonPath("$[1].error").value(startsWith("email: ")))
+                .andExpect(jsonPath("$[2].status").value(404))
+                .andExpect(jsonPath("$[3].status").value(412))
+                .andExpect(jsonPath("$[3].error").value("Versione attuale " + (luca.getVersion() + 1)));
+
+        // gli scartati restano com'erano, l'elemento valido è salvato
+        mvc.perform(inTenant(get("/api/contatti/{id}", mario.getId()))).andExpect(jsonPath("$.nome").value("Marco"));
+        mvc.perform(inTenant(get("/api/contatti/{id}", anna.getId()))).andExpect(jsonPath("$.email").value("anna@ex.com"));
+        mvc.perform(inTenant(get("/api/contatti/{id}", luca.getId()))).andExpect(jsonPath("$.nome").value("Luca"));
+    }
+
+    @Test
+    void batch_elementoNullo_400() throws Exception {
+        mvc.perform(inTenant(put("/api/contatti/batch").contentType(MediaType.APPLICATION_JSON).content("[null]")))
+                .andExpect(status().isBadRequest());
+        mvc.perform(inTenant(post("/api/contatti/batch/delete").contentType(MediaType.APPLICATION_JSON)
+                .content("[1,null]")))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void batchDelete_204O404PerElemento() throws Exception {
+        Contatto mario = insert("Mario", "Rossi", "333 1234567", "mario@ex.com");
+
+        mvc.perform(inTenant(post("/api/contatti/batch/delete").contentType(MediaType.APPLICATION_JSON)
+                .content("[" + mario.getId() + "," + Long.MAX_VALUE + "]")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value(204))
+                .andExpect(jsonPath("$[1].status").value(404));
+
+        mvc.perform(inTenant(get("/api/contatti/{id}", mario.getId()))).andExpect(status().isNotFound());
+    }
+}
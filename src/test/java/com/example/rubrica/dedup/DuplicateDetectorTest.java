@@ -0,0 +1,71 @@
+package com.example.rubrica.dedup;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.rubrica.dto.ContattoResponse;
+import com.example.rubrica.dto.DuplicateGroup;
+
+public class DuplicateDetectorTest {
+
+    private final DuplicateDetector detector = new DuplicateDetector(null, new DedupProperties());
+
+    private List<DuplicateGroup> detect(ContattoResponse... contatti) {
+        List<DuplicateGroup> groups = new ArrayList<>();
+        detector.detect(List.of(contatti), 0.85, groups::add);
+        return groups;
+    }
+
+    @Test
+    void telefonoEmailFormattatiDiversamente() {
+        List<DuplicateGroup> groups = detect(
+                new ContattoResponse(1L, "Mario", "Rossi", "+39 333 123-4567", "Mario.Rossi@Example.com", 0L),
+                new ContattoResponse(2L, "mario", "ROSSI", "3331234567", "mario.rossi@example.com", 0L),
+                new ContattoResponse(3L, "Luca", "Bianchi", "3470000000", "luca@example.com", 0L));
+
+        assertEquals(1, groups.size());
+        assertEquals(List.of(1L, 2L), groups.get(0).getContatti().stream().map(ContattoResponse::getId).toList());
+    }
+
+    @Test
+    void nomeCognomeInvertiti() {
+        List<DuplicateGroup> groups = detect(
+                new ContattoResponse(1L, "Giuseppe", "Verdi", "0612345678", null, 0L),
+                new ContattoResponse(2L, "Verdi", "Giuseppe", "06 1234 5678", null, 0L));
+
+        assertEquals(1, groups.size());
+    }
+
+    @Test
+    void omonimiConRecapitiDiversiNonSonoDuplicati() {
+        List<DuplicateGroup> groups = detect(
+                new ContattoResponse(1L, "Mario", "Rossi", "3331111111", "mario1@example.com", 0L),
+                new ContattoResponse(2L, "Mario", "Rossi", "3332222222", "mario2@example.com", 0L));
+
+        assertTrue(groups.isEmpty());
+    }
+
+    @Test
+    void blocchiGrandiConFinestra() {
+        DedupProperties properties = new DedupProperties();
+        properties.setMaxBlockSize(10);
+        properties.setWindow(3);
+        DuplicateDetector small = new DuplicateDetector(null, properties);
+
+        List<ContattoResponse> contatti = new ArrayList<>();
+        for (long i = 0; i < 100; i++) {
+            contatti.add(new ContattoResponse(i, "Nome" + i, "Rossi", "33300" + i, "n" + i + "@example.com", 0L));
+        }
+        contatti.add(new ContattoResponse(100L, "Nome42", "Rossi", "3330042", "N42@example.com", 0L));
+
+        List<DuplicateGroup> groups = new ArrayList<>();
+        small.detect(contatti, 0.85, groups::add);
+
+        assertEquals(1, groups.size());
+        assertEquals(List.of(42L, 100L), groups.get(0).getContatti().stream().map(ContattoResponse::getId).toList());
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.rubrica.encoding;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.example.rubrica.model.Contatto;
+import com.example.rubrica.service.ContattoService;
+import com.example.rubrica.tenant.TenantContext;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * Negoziazione del formato e compressione viste da un client HTTP vero: la compressione è di Tomcat,
+ * quindi serve il server in ascolto e non MockMvc. Il timeout asincrono breve chiude lo stream SSE
+ * lasciato aperto, che altrimenti tratterrebbe lo spegnimento del server.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.mvc.async.request-timeout=2s")
+@ActiveProfiles("test")
+public class EncodingNegotiationTest {
+
+    private static final int CONTATTI = 60;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ContattoService service;
+
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    private final String tenant = "enc-" + UUID.randomUUID();
+
+    @BeforeEach
+    void setup() {
+        List<Contatto> contatti = new ArrayList<>();
+        for (int i = 0; i < CONTATTI; i++) {
+            contatti.add(new Contatto(null, i % 2 == 0 ? "Mario" : "Anna", "Cognome" + i, "333 12345" + (10 + i),
+                    "contatto" + i + "@ex.com"));
+        }
+        TenantContext.callAs(tenant, () -> service.insertAll(contatti));
+    }
+
+    private HttpResponse<byte[]> get(String path, String... headers) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("X-Tenant-ID", tenant);
+        for (int i = 0; i < headers.length; i += 2) {
+            request.header(headers[i], headers[i + 1]);
+        }
+        return client.send(request.GET().build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private static String contentType(HttpResponse<?> response) {
+        return response.headers().firstValue(HttpHeaders.CONTENT_TYPE).orElse(null);
+    }
+
+    @Test
+    void cbor() throws Exception {
+        HttpResponse<byte[]> response = get("/api/contatti", HttpHeaders.ACCEPT, "application/cbor");
+
+        assertEquals(200, response.statusCode());
+        assertEquals("application/cbor", contentType(response));
+        JsonNode contatti = new ObjectMapper(new CBORFactory()).readTree(response.body());
+        assertEquals(CONTATTI, contatti.size());
+        assertEquals("Mario", contatti.get(0).get("nome").asText());
+    }
+
+    @Test
+    void smile() throws Exception {
+        HttpResponse<byte[]> response = get("/api/contatti", HttpHeaders.ACCEPT, "application/x-jackson-smile");
+
+        assertEquals(200, response.statusCode());
+        assertEquals("application/x-jackson-smile", contentType(response));
+        JsonNode contatti = new ObjectMapper(new SmileFactory()).readTree(response.body());
+        assertEquals(CONTATTI, contatti.size());
+        assertEquals("Cognome1", contatti.get(1).get("cognome").asText());
+    }
+
+    @Test
+    void colonnare_jsonECbor() throws Exception {
+        HttpResponse<byte[]> json = get("/api/contatti/searchsort?size=50&sort=id",
+                HttpHeaders.ACCEPT, "application/vnd.rubrica.columnar+json");
+        assertEquals("application/vnd.rubrica.columnar+json", contentType(json));
+        JsonNode page = new ObjectMapper().readTree(json.body());
+        assertEquals(50, page.get("count").asInt());
+        assertEquals(List.of("Mario", "Anna"), List.of(page.at("/nome/dict/0").asText(), page.at("/nome/dict/1").asText()));
+        assertEquals(CONTATTI, page.at("/page/totalElements").asInt());
+
+        HttpResponse<byte[]> cbor = get("/api/contatti", HttpHeaders.ACCEPT, "application/vnd.rubrica.columnar+cbor");
+        assertEquals("application/vnd.rubrica.columnar+cbor", contentType(cbor));
+        JsonNode list = new ObjectMapper(new CBORFactory()).readTree(cbor.body());
+        assertEquals(CONTATTI, list.get("count").asInt());
+        assertEquals(CONTATTI, list.get("email").size());
+        assertNull(list.get("page"), "le liste non hanno la pagina");
+    }
+
+    @Test
+    void senzaPreferenze_jsonNormale() throws Exception {
+        HttpResponse<byte[]> response = get("/api/contatti", HttpHeaders.ACCEPT, "*/*");
+
+        assertEquals("application/json", contentType(response));
+        assertTrue(new ObjectMapper().readTree(response.body()).isArray());
+    }
+
+    @Test
+    void gzip_sopraSoglia_conETagDebole() throws Exception {
+        HttpResponse<byte[]> response = get("/api/contatti", HttpHeaders.ACCEPT, "application/json",
+                HttpHeaders.ACCEPT_ENCODING, "gzip");
+
+        assertEquals(200, response.statusCode());
+        assertEquals("gzip", response.headers().firstValue(HttpHeaders.CONTENT_ENCODING).orElse(null));
+        assertTrue(response.headers().firstValue(HttpHeaders.ETAG).orElseThrow().startsWith("W/"));
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(response.body()))) {
+            assertEquals(CONTATTI, new ObjectMapper().readTree(in).size());
+        }
+
+        HttpResponse<byte[]> cbor = get("/api/contatti", HttpHeaders.ACCEPT, "application/cbor",
+                HttpHeaders.ACCEPT_ENCODING, "gzip");
+        assertEquals("gzip", cbor.headers().firstValue(HttpHeaders.CONTENT_ENCODING).orElse(null));
+    }
+
+    @Test
+    void gzip_sottoSoglia_nonCompresso() throws Exception {
+        HttpResponse<byte[]> response = get("/api/contatti/search?nome=Anna&cognome=Cognome1",
+                HttpHeaders.ACCEPT, "application/json", HttpHeaders.ACCEPT_ENCODING, "gzip");
+
+        assertEquals(200, response.statusCode());
+        assertTrue(response.headers().firstValue(HttpHeaders.CONTENT_ENCODING).isEmpty());
+        assertEquals(String.valueOf(response.body().length),
+                response.headers().firstValue(HttpHeaders.CONTENT_LENGTH).orElse(null));
+        assertEquals(1, new ObjectMapper().readTree(response.body()).size());
+    }
+
+    @Test
+    void gzip_exportInStreaming() throws Exception {
+        HttpResponse<byte[]> response = get("/api/contatti/export", HttpHeaders.ACCEPT_ENCODING, "gzip");
+
+        assertEquals(200, response.statusCode());
+        assertEquals("gzip", response.headers().firstValue(HttpHeaders.CONTENT_ENCODING).orElse(null));
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(response.body()))) {
+            assertEquals(CONTATTI, new String(in.readAllBytes(), StandardCharsets.UTF_8).lines().count());
+        }
+    }
+
+    @Test
+    void sse_eventiNonTrattenuti() throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/contatti/changes/stream"))
+                .header("X-Tenant-ID", tenant)
+                .build();
+
+        // lo stream non termina: gli eventi arretrati devono arrivare senza aspettare la fine della risposta
+        HttpResponse<Stream<String>> response = client.sendAsync(request, HttpResponse.BodyHandlers.ofLines())
+                .get(5, TimeUnit.SECONDS);
+        try (Stream<String> lines = response.body()) {
+            assertEquals(200, response.statusCode());
+            assertTrue(contentType(response).startsWith("text/event-stream"));
+            assertEquals(CONTATTI, lines.filter(line -> line.startsWith("event:CREATED")).limit(CONTATTI).count());
+        }
+    }
+}
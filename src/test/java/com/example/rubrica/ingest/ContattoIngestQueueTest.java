@@ -0,0 +1,108 @@
+package com.example.rubrica.ingest;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.rubrica.dto.ContattoRequest;
+import com.example.rubrica.dto.ContattoResponse;
+import com.example.rubrica.mapper.ContattoMapper;
+import com.example.rubrica.model.Contatto;
+import com.example.rubrica.service.ContattoService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class ContattoIngestQueueTest {
+
+    private final ContattoService service = mock(ContattoService.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final List<Integer> batches = new CopyOnWriteArrayList<>();
+    private final AtomicLong ids = new AtomicLong();
+    private ContattoIngestQueue queue;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        queue.stop();
+    }
+
+    private ContattoIngestQueue start(int capacity, int batchSize, Duration linger) {
+        IngestProperties properties = new IngestProperties();
+        properties.setEnabled(true);
+        properties.setCapacity(capacity);
+        properties.setBatchSize(batchSize);
+        properties.setLinger(linger);
+        queue = new ContattoIngestQueue(service, new ContattoMapper(), properties, registry);
+        queue.start();
+        return queue;
+    }
+
+    private List<Contatto> save(List<Contatto> contatti) {
+        batches.add(contatti.size());
+        contatti.forEach(c -> c.setId(ids.incrementAndGet()));
+        return contatti;
+    }
+
+    private static ContattoRequest request(String nome) {
+        ContattoRequest request = new ContattoRequest();
+        request.setNome(nome);
+        request.setCognome("Rossi");
+        request.setEmail(nome.toLowerCase() + "@example.com");
+        return request;
+    }
+
+    @Test
+    void richiesteRaggruppateInBlocchi() throws Exception {
+        when(service.insertAll(anyList())).thenAnswer(inv -> save(inv.getArgument(0)));
+        start(100, 3, Duration.ofMillis(200));
+
+        List<CompletableFuture<ContattoResponse>> futures = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            futures.add(queue.submit(request("Nome" + i)));
+        }
+        for (CompletableFuture<ContattoResponse> future : futures) {
+            assertNotNull(future.get(5, TimeUnit.SECONDS).getId());
+        }
+
+        assertEquals(5, batches.stream().mapToInt(Integer::intValue).sum());
+        assertTrue(batches.stream().allMatch(size -> size <= 3));
+        assertTrue(batches.size() < 5, "atteso almeno un blocco con più righe: " + batches);
+    }
+
+    @Test
+    void codaPienaRifiuta() throws Exception {
+        CountDownLatch inCommit = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(service.insertAll(anyList())).thenAnswer(inv -> {
+            inCommit.countDown();
+            release.await();
+            return save(inv.getArgument(0));
+        });
+        start(2, 1, Duration.ZERO);
+
+        CompletableFuture<ContattoResponse> first = queue.submit(request("Primo"));
+        assertTrue(inCommit.await(5, TimeUnit.SECONDS));
+        CompletableFuture<ContattoResponse> second = queue.submit(request("Secondo"));
+        CompletableFuture<ContattoResponse> third = queue.submit(request("Terzo"));
+
+        assertNull(queue.submit(request("Quarto")));
+        assertEquals(2, queue.getDepth());
+        assertEquals(1.0, registry.get("rubrica.ingest.rejected").counter().count());
+
+        release.countDown();
+        CompletableFuture.allOf(first, second, third).get(5, TimeUnit.SECONDS);
+        assertEquals(List.of(1, 1, 1), batches);
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.rubrica.metrics;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class StatementCountFilterTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    private MvcResult async(String uri) throws Exception {
+        MvcResult result = mvc.perform(get(uri))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertNull(summary(uri.replaceAll("\\?.*", "")), "registrata solo al dispatch finale");
+        mvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+        return result;
+    }
+
+    private DistributionSummary summary(String uri) {
+        return registry.find(StatementCountFilter.METRIC).tag("method", "GET").tag("uri", uri).summary();
+    }
+
+    @Test
+    void export_contaLeIstruzioniDelThreadDiStreaming() throws Exception {
+        async("/api/contatti/export");
+
+        DistributionSummary summary = summary("/api/contatti/export");
+        assertEquals(1, summary.count());
+        assertTrue(summary.totalAmount() >= 1, "la query dell'export gira sul thread async");
+    }
+
+    @Test
+    void longPoll_contaAncheLaLetturaDopoLAttesa() throws Exception {
+        async("/api/contatti/changes?wait=1");
+
+        DistributionSummary summary = summary("/api/contatti/changes");
+        assertEquals(1, summary.count());
+        assertTrue(summary.totalAmount() >= 2, "lettura iniziale e lettura dopo il timeout");
+    }
+}
@@ -9,9 +9,19 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.test.context.ActiveProfiles;
 
+import com.example.rubrica.dto.ContattoResponse;
 import com.example.rubrica.model.Contatto;
+import com.example.rubrica.search.ContattoQuery;
+import com.example.rubrica.search.MatchMode;
+import com.example.rubrica.search.TextNormalizer;
 
 @DataJpaTest
 @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
@@ -42,7 +52,119 @@ public class ContattoRepositoryTest {
 
     @Test
     void searchByNomeLike_caseInsensitive() {
-        List<Contatto> result = repo.findByNomeLike("mar");
+        List<ContattoResponse> result = repo.findByNomeLike("mar");
         assertEquals(2, result.size()); 
     }
+
+    /** Le ricerche parziali al database ignorano gli accenti come l'indice in memoria. */
+    @Test
+    void ricercaParziale_ignoraAccenti_comeLIndice() {
+        repo.saveAndFlush(new Contatto(null, "Niccolò", "Bianchi", "333", "nicco@ex.com"));
+
+        assertEquals(List.of("Niccolò"), repo.findByNomeLike(TextNormalizer.normalize("NICCOLO")).stream()
+                .map(ContattoResponse::getNome).toList());
+        Page<ContattoResponse> contains = repo.search(ContattoQuery.builder(MatchMode.CONTAINS).nome("colo").build(),
+                Pageable.unpaged());
+        assertEquals(List.of("Niccolò"), contains.map(ContattoResponse::getNome).getContent());
+        Page<ContattoResponse> testo = repo.search(ContattoQuery.builder(MatchMode.CONTAINS).testo("nìcco bianchi").build(),
+                Pageable.unpaged());
+        assertEquals(1, testo.getTotalElements());
+        Page<ContattoResponse> exact = repo.search(ContattoQuery.builder(MatchMode.EXACT).nome("Niccolo").build(),
+                Pageable.unpaged());
+        assertTrue(exact.isEmpty(), "il confronto esatto resta sul valore salvato");
+    }
+
+    @Test
+    void lookupPerTelefonoEmailNormalizzati() {
+        repo.saveAndFlush(new Contatto(null, "Anna", "Neri", "+39 (333) 123-4567", "Anna.Neri@Ex.com"));
+
+        List<ContattoResponse> byTelefono = repo.findByTelefonoNormalizzato(TextNormalizer.normalizeTelefono("0039 3331234567"));
+        assertEquals(List.of("Anna"), byTelefono.stream().map(ContattoResponse::getNome).toList());
+        List<ContattoResponse> byEmail = repo.findByEmailNormalizzata(TextNormalizer.normalizeEmail(" anna.neri@ex.COM "));
+        assertEquals(List.of("Anna"), byEmail.stream().map(ContattoResponse::getNome).toList());
+    }
+
+    @Test
+    void search_filtriCombinati() {
+        repo.saveAndFlush(new Contatto(null, "Mario", "Verdi", "+39 333 1234567", "m.verdi@ex.com"));
+
+        Page<ContattoResponse> exact = repo.search(ContattoQuery.builder(MatchMode.EXACT).nome("Mario").cognome("Verdi").build(),
+                PageRequest.of(0, 10));
+        assertEquals(List.of("m.verdi@ex.com"), exact.map(ContattoResponse::getEmail).getContent());
+
+        Page<ContattoResponse> testo = repo.search(ContattoQuery.builder(MatchMode.CONTAINS).testo("MAR ver").build(),
+                PageRequest.of(0, 1, Sort.by("email")));
+        assertEquals(2, testo.getTotalElements());
+        assertEquals(List.of("m.verdi@ex.com"), testo.map(ContattoResponse::getEmail).getContent());
+
+        Page<ContattoResponse> telefono = repo.search(ContattoQuery.builder(MatchMode.PREFIX).telefono("333").build(),
+                Pageable.unpaged());
+        assertEquals(List.of("Verdi"), telefono.map(ContattoResponse::getCognome).getContent());
+    }
+
+    @Test
+    void search_ordinamentoNonSupportato() {
+        assertThrows(InvalidDataAccessApiUsageException.class, () -> repo.search(
+                ContattoQuery.builder(MatchMode.EXACT).nome("Mario").build(), PageRequest.of(0, 10, Sort.by("version"))));
+    }
+
+    @Test
+    void search_ordinamento_ignoreCaseENull() {
+        repo.saveAndFlush(new Contatto(null, "bruno", "Neri", "333", null));
+        ContattoQuery tutti = ContattoQuery.builder(MatchMode.CONTAINS).build();
+
+        assertEquals(List.of("Marina", "Mario", "bruno"), nomi(repo.search(tutti, Pageable.unpaged(Sort.by("nome")))));
+        assertEquals(List.of("bruno", "Marina", "Mario"),
+                nomi(repo.search(tutti, Pageable.unpaged(Sort.by(Sort.Order.asc("nome").ignoreCase())))));
+        assertEquals(List.of("Marina", "Mario", "bruno"),
+                nomi(repo.search(tutti, Pageable.unpaged(Sort.by(Sort.Order.asc("email").nullsLast())))));
+        assertEquals(List.of("bruno", "Mario", "Marina"),
+                nomi(repo.search(tutti, Pageable.unpaged(Sort.by(Sort.Order.desc("email").nullsFirst())))));
+        assertThrows(InvalidDataAccessApiUsageException.class,
+                () -> repo.search(tutti, Pageable.unpaged(Sort.by(Sort.Order.asc("id").ignoreCase()))));
+    }
+
+    private static List<String> nomi(Page<ContattoResponse> page) {
+        return page.map(ContattoResponse::getNome).getContent();
+    }
+
+    @Test
+    void keyset_pagineConsecutive() {
+        repo.save(new Contatto(null, "Anna", "Rossi", "333", "anna@ex.com"));
+
+        Slice<ContattoResponse> first = repo.findFirstSlice(null, null, PageRequest.of(0, 2));
+        assertEquals(List.of("Anna", "Mario"), first.getContent().stream().map(ContattoResponse::getNome).toList());
+        assertTrue(first.hasNext());
+
+        ContattoResponse last = first.getContent().get(1);
+        Slice<ContattoResponse> second = repo.findSliceAfter(null, null, last.getCognome(), last.getNome(), last.getId(),
+                PageRequest.of(0, 2));
+        assertEquals(List.of("Marina"), second.getContent().stream().map(ContattoResponse::getNome).toList());
+        assertFalse(second.hasNext());
+    }
+
+    @Test
+    void keyset_conFiltro() {
+        Slice<ContattoResponse> slice = repo.findFirstSlice(null, "ver", PageRequest.of(0, 10));
+        assertEquals(1, slice.getNumberOfElements());
+        assertEquals("Verdi", slice.getContent().get(0).getCognome());
+    }
+
+    @Test
+    void keyset_filtroSulleColonneNormalizzate_senzaJolly() {
+        repo.save(new Contatto(null, "Niccolò", "Dal_Monte", "444", "niccolo@ex.com"));
+        repo.save(new Contatto(null, "Nico", "Dalmonte", "555", "nico@ex.com"));
+        repo.flush();
+
+        Slice<ContattoResponse> accenti = repo.findFirstSlice(TextNormalizer.normalize("NICCOLO"), null,
+                PageRequest.of(0, 10));
+        assertEquals(List.of("Niccolò"), accenti.getContent().stream().map(ContattoResponse::getNome).toList());
+
+        String needle = TextNormalizer.escapeLike(TextNormalizer.normalize("dal_"));
+        assertEquals(List.of("Dal_Monte"), repo.findFirstSlice(null, needle, PageRequest.of(0, 10)).getContent()
+                .stream().map(ContattoResponse::getCognome).toList(), "'_' non fa da jolly");
+        assertTrue(repo.findFirstSlice(TextNormalizer.escapeLike("%"), null, PageRequest.of(0, 10)).isEmpty());
+        assertTrue(repo.findSliceAfter(null, needle, "A", "A", 0L, PageRequest.of(0, 10)).getContent().stream()
+                .allMatch(c -> c.getCognome().equals("Dal_Monte")));
+    }
 }
@@ -0,0 +1,139 @@
+package com.example.rubrica.routing;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.rubrica.tenant.TenantContext;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Primario e repliche sono database H2 in memoria distinti, ognuno con una riga che dice chi è:
+ * ogni lettura mostra dove è stata instradata la transazione.
+ */
+public class ReplicaRoutingDataSourceTest {
+
+    private final List<DataSource> databases = new ArrayList<>();
+    private JdbcTemplate jdbc;
+    private TransactionTemplate readOnlyTx;
+    private TransactionTemplate writeTx;
+
+    @AfterEach
+    void tearDown() {
+        DataSourceRouting.clear();
+        databases.forEach(db -> new JdbcTemplate(db).execute("SHUTDOWN"));
+    }
+
+    private void start(Duration readYourWrites, String... replicas) {
+        DataSource primary = database("primary");
+        List<DataSource> replicaDatabases = new ArrayList<>();
+        for (String name : replicas) {
+            replicaDatabases.add(database(name));
+        }
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, replicaDatabases, readYourWrites,
+                new SimpleMeterRegistry());
+        routing.afterPropertiesSet();
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+        jdbc = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager txManager = new DataSourceTransactionManager(dataSource);
+        writeTx = new TransactionTemplate(txManager);
+        readOnlyTx = new TransactionTemplate(txManager);
+        readOnlyTx.setReadOnly(true);
+    }
+
+    private DataSource database(String name) {
+        DataSource db = new SimpleDriverDataSource(new org.h2.Driver(),
+                "jdbc:h2:mem:routing-" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate init = new JdbcTemplate(db);
+        init.execute("CREATE TABLE nodo (nome VARCHAR(20))");
+        init.update("INSERT INTO nodo VALUES (?)", name);
+        databases.add(db);
+        return db;
+    }
+
+    private String node() {
+        return jdbc.queryForObject("SELECT nome FROM nodo", String.class);
+    }
+
+    private String readNode() {
+        return readOnlyTx.execute(status -> node());
+    }
+
+    @Test
+    void letture_sulleRepliche_aTurno_scritture_sulPrimario() {
+        start(Duration.ZERO, "replica-a", "replica-b");
+
+        assertEquals(List.of("replica-a", "replica-b", "replica-a"), List.of(readNode(), readNode(), readNode()));
+        assertEquals("primary", writeTx.execute(status -> node()));
+        assertEquals("primary", node(), "fuori transazione si usa il primario");
+        assertEquals("primary", DataSourceRouting.onPrimary(this::readNode));
+    }
+
+    @Test
+    void dopoUnaScrittura_leLetture_restanoSulPrimario_perLaFinestra() throws InterruptedException {
+        start(Duration.ofMillis(300), "replica");
+        List<Long> cookies = new ArrayList<>();
+        DataSourceRouting.bind(0, cookies::add);
+        assertEquals("replica", readNode());
+
+        writeTx.executeWithoutResult(status -> jdbc.update("UPDATE nodo SET nome = nome"));
+        assertEquals(1, cookies.size());
+        assertTrue(cookies.get(0) > System.currentTimeMillis());
+        assertEquals("primary", readNode());
+
+        Thread.sleep(400);
+        assertEquals("replica", readNode());
+    }
+
+    @Test
+    void laFinestra_valeSoloPerIlTenantCheHaScritto() {
+        start(Duration.ofMinutes(1), "replica");
+
+        TenantContext.runAs("acme", () -> writeTx.executeWithoutResult(
+                status -> jdbc.update("UPDATE nodo SET nome = nome")));
+        DataSourceRouting.clear();
+
+        assertEquals("primary", TenantContext.callAs("acme", this::readNode));
+        assertEquals("replica", TenantContext.callAs("globex", this::readNode));
+        assertEquals("replica", readNode(), "il tenant di default non ha scritto");
+        assertEquals("primary", TenantContext.callAs(TenantContext.ROOT, this::readNode),
+                "le letture di tutti i tenant includono acme");
+    }
+
+    @Test
+    void scritturaDiUnAltroNodo_seguitaDalCookieDelClient() {
+        start(Duration.ZERO, "replica");
+
+        DataSourceRouting.bind(System.currentTimeMillis() + 60_000, until -> {
+        });
+        assertEquals("primary", readNode());
+
+        DataSourceRouting.bind(System.currentTimeMillis() - 1, until -> {
+        });
+        assertEquals("replica", readNode());
+    }
+
+    @Test
+    void scritturaRollbackata_nonCambiaIlRouting() {
+        start(Duration.ofMinutes(1), "replica");
+
+        writeTx.executeWithoutResult(status -> {
+            jdbc.update("UPDATE nodo SET nome = nome");
+            status.setRollbackOnly();
+        });
+        assertEquals("replica", readNode());
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.rubrica.search;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import com.example.rubrica.dto.ContattoResponse;
+import com.example.rubrica.service.event.ContattoEvent;
+
+/** Eventi dopo il commit consegnati in ordine diverso da quello delle versioni. */
+public class ContattoSearchIndexTest {
+
+    private ContattoSearchIndex index;
+
+    @BeforeEach
+    void setup() {
+        // senza rebuild: gli eventi bastano a popolare l'indice
+        index = new ContattoSearchIndex(null, null, true);
+    }
+
+    private static ContattoResponse contatto(long id, String nome, String telefono, long version) {
+        return new ContattoResponse(id, nome, "Rossi", telefono, nome.toLowerCase() + "@ex.com", version);
+    }
+
+    private List<String> nomi(String needle) {
+        return index.findContaining(SearchField.NOME, needle).stream().map(ContattoResponse::getNome).toList();
+    }
+
+    @Test
+    void aggiornamentoVecchio_arrivatoDopo_scartato() {
+        index.onContattoEvent(ContattoEvent.created(contatto(1, "Mario", "111", 0)));
+        index.onContattoEvent(ContattoEvent.updated(contatto(1, "Giuseppe", "222", 2)));
+        index.onContattoEvent(ContattoEvent.updated(contatto(1, "Luigi", "333", 1)));
+
+        assertEquals(List.of("Giuseppe"), nomi("giuse"));
+        assertTrue(nomi("luigi").isEmpty());
+        assertTrue(nomi("mario").isEmpty());
+        assertEquals(1, index.findByTelefono(TextNormalizer.normalizeTelefono("222")).size());
+        assertTrue(index.findByTelefono(TextNormalizer.normalizeTelefono("333")).isEmpty());
+    }
+
+    @Test
+    void cancellazione_poiAggiornamentoInRitardo_restaCancellato() {
+        index.onContattoEvent(ContattoEvent.created(contatto(1, "Mario", "111", 0)));
+        index.onContattoEvent(ContattoEvent.deleted(1L));
+        index.onContattoEvent(ContattoEvent.updated(contatto(1, "Mario", "111", 1)));
+
+        assertTrue(nomi("mario").isEmpty());
+        assertTrue(index.findByEmail("mario@ex.com").isEmpty());
+    }
+
+    @Test
+    void cancellazioneArrivataPrimaDellInserimento_restaCancellato() {
+        index.onContattoEvent(ContattoEvent.deleted(1L));
+        index.onContattoEvent(ContattoEvent.created(contatto(1, "Mario", "111", 0)));
+
+        assertTrue(nomi("mario").isEmpty());
+    }
+
+    /** Stesso ordine della query al database: {@code ignoreCase} e posizione dei null vengono applicati. */
+    @Test
+    void ordinamento_ignoreCaseENull_comeIlDatabase() {
+        index.onContattoEvent(ContattoEvent.created(contatto(1, "Mario", "111", 0)));
+        index.onContattoEvent(ContattoEvent.created(contatto(2, "marina", "222", 0)));
+        index.onContattoEvent(ContattoEvent.created(new ContattoResponse(3L, "Mara", "Rossi", "333", null, 0L)));
+        ContattoQuery query = ContattoQuery.builder(MatchMode.CONTAINS).nome("mar").build();
+
+        assertEquals(List.of("Mara", "Mario", "marina"), cerca(query, Sort.by("nome")));
+        assertEquals(List.of("Mara", "marina", "Mario"), cerca(query, Sort.by(Sort.Order.asc("nome").ignoreCase())));
+        assertEquals(List.of("marina", "Mario", "Mara"), cerca(query, Sort.by(Sort.Order.asc("email").nullsLast())));
+        assertEquals(List.of("Mara", "Mario", "marina"), cerca(query, Sort.by(Sort.Order.desc("email").nullsFirst())));
+    }
+
+    private List<String> cerca(ContattoQuery query, Sort sort) {
+        return index.search(query, Pageable.unpaged(sort)).map(ContattoResponse::getNome).getContent();
+    }
+}
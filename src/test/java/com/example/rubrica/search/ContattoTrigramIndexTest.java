@@ -0,0 +1,57 @@
+package com.example.rubrica.search;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.rubrica.dto.ContattoResponse;
+
+public class ContattoTrigramIndexTest {
+
+    private ContattoTrigramIndex index;
+
+    @BeforeEach
+    void setup() {
+        index = new ContattoTrigramIndex();
+        index.put(new ContattoResponse(1L, "Mario", "Rossi", "111", "mario@ex.com", 0L));
+        index.put(new ContattoResponse(2L, "Marina", "Verdi", "222", "marina@ex.com", 0L));
+        index.put(new ContattoResponse(3L, "Niccolò", "Bianchi", "333", "nicco@ex.com", 0L));
+    }
+
+    @Test
+    void findContaining_caseInsensitive() {
+        List<ContattoResponse> result = index.findContaining(SearchField.NOME, "MAR");
+        assertEquals(2, result.size());
+    }
+
+    @Test
+    void findContaining_ignoraAccenti() {
+        assertEquals(1, index.findContaining(SearchField.NOME, "niccolo").size());
+        assertEquals(1, index.findContaining(SearchField.NOME, "colò").size());
+    }
+
+    @Test
+    void findContaining_agoCorto() {
+        assertEquals(3, index.findContaining(SearchField.COGNOME, "i").size());
+        assertEquals(1, index.findContaining(SearchField.COGNOME, "ss").size());
+    }
+
+    @Test
+    void findContaining_trigrammiNonContigui() {
+        assertTrue(index.findContaining(SearchField.NOME, "marioa").isEmpty());
+    }
+
+    @Test
+    void putAggiornaERemoveElimina() {
+        index.put(new ContattoResponse(1L, "Giuseppe", "Rossi", "111", "giuseppe@ex.com", 0L));
+        assertEquals(1, index.findContaining(SearchField.NOME, "mar").size());
+        assertEquals(1, index.findContaining(SearchField.NOME, "giuse").size());
+
+        index.remove(1L);
+        assertTrue(index.findContaining(SearchField.NOME, "giuse").isEmpty());
+        assertEquals(2, index.size());
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.rubrica.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.example.rubrica.dto.ContattoRequest;
+import com.example.rubrica.dto.ContattoResponse;
+import com.example.rubrica.model.Contatto;
+import com.example.rubrica.repository.ContattoRepository;
+
+/**
+ * Aggiornamenti concorrenti sugli stessi contatti: ogni aggiornamento confermato deve lasciare
+ * traccia, nessuno può essere sovrascritto in silenzio.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public class ContattoServiceConcurrencyTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ContattoServiceConcurrencyTest.class);
+
+    private static final int THREADS = 16;
+    private static final int UPDATES_PER_THREAD = 50;
+
+    @Autowired
+    private ContattoService service;
+
+    @Autowired
+    private ContattoRepository repo;
+
+    private static ContattoRequest request(String nome, String telefono) {
+        ContattoRequest request = new ContattoRequest();
+        request.setNome(nome);
+        request.setCognome("Concorrente");
+        request.setTelefono(telefono);
+        request.setEmail("concorrente@example.com");
+        return request;
+    }
+
+    private List<Long> insert(int count) {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ids.add(service.insertContatto(new Contatto(null, "Stress" + i, "Concorrente", "0", "s@example.com")).getId());
+        }
+        return ids;
+    }
+
+    /** Senza If-Match i conflitti vengono ritentati: una versione nuova per ogni aggiornamento confermato. */
+    @Test
+    void aggiornamentiCiechiNessunoPerso() throws Exception {
+        List<Long> ids = insert(4);
+        AtomicLong[] confirmed = new AtomicLong[ids.size()];
+        for (int i = 0; i < confirmed.length; i++) {
+            confirmed[i] = new AtomicLong();
+        }
+        AtomicLong exhausted = new AtomicLong();
+
+        long elapsed = run(worker -> {
+            for (int i = 0; i < UPDATES_PER_THREAD; i++) {
+                int target = (worker + i) % ids.size();
+                try {
+                    service.updateContatto(ids.get(target), request("Stress" + target, worker + "-" + i));
+                    confirmed[target].incrementAndGet();
+                } catch (OptimisticLockingFailureException e) {
+                    exhausted.incrementAndGet();
+                }
+            }
+        });
+
+        long total = 0;
+        for (int i = 0; i < ids.size(); i++) {
+            Contatto contatto = repo.findById(ids.get(i)).orElseThrow();
+            assertEquals(confirmed[i].get(), contatto.getVersion(), "versione del contatto " + ids.get(i));
+            total += confirmed[i].get();
+        }
+        assertEquals(THREADS * UPDATES_PER_THREAD, total + exhausted.get());
+        assertTrue(total > 0);
+        log.info("Aggiornamenti ciechi: {} confermati, {} oltre i tentativi, {} update/s", total, exhausted.get(),
+                total * 1_000_000_000L / elapsed);
+    }
+
+    /** Lettura-modifica-scrittura con versione attesa: il contatore finale conta tutti gli incrementi. */
+    @Test
+    void incrementiConVersioneAttesa() throws Exception {
+        Long id = insert(1).get(0);
+        service.updateContatto(id, request("Contatore", "0"));
+        AtomicLong conflicts = new AtomicLong();
+
+        long elapsed = run(worker -> {
+            for (int i = 0; i < UPDATES_PER_THREAD; i++) {
+                while (true) {
+                    ContattoResponse current = repo.findResponseById(id).orElseThrow();
+                    long next = Long.parseLong(current.getTelefono()) + 1;
+                    try {
+                        service.updateContatto(id, request("Contatore", Long.toString(next)), current.getVersion());
+                        break;
+                    } catch (OptimisticLockingFailureException e) {
+                        conflicts.incrementAndGet();
+                    }
+                }
+            }
+        });
+
+        ContattoResponse result = repo.findResponseById(id).orElseThrow();
+        assertEquals(THREADS * UPDATES_PER_THREAD, Long.parseLong(result.getTelefono()));
+        log.info("Incrementi con If-Match: {} in {} ms, {} conflitti, {} update/s", THREADS * UPDATES_PER_THREAD,
+                elapsed / 1_000_000, conflicts.get(), THREADS * UPDATES_PER_THREAD * 1_000_000_000L / elapsed);
+    }
+
+    private static long run(Worker worker) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        long begin;
+        try (ExecutorService executor = Executors.newFixedThreadPool(THREADS)) {
+            for (int t = 0; t < THREADS; t++) {
+                int id = t;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    worker.run(id);
+                    return null;
+                }));
+            }
+            begin = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        return System.nanoTime() - begin;
+    }
+
+    private interface Worker {
+        void run(int worker) throws Exception;
+    }
+}
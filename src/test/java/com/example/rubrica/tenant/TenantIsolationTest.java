@@ -0,0 +1,92 @@
+package com.example.rubrica.tenant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.rubrica.cache.ContattoRevisions;
+import com.example.rubrica.dto.ContattoResponse;
+import com.example.rubrica.model.Contatto;
+import com.example.rubrica.repository.ContattoRepository;
+
+/**
+ * Ogni tenant lavora in una transazione propria: la sessione Hibernate prende il tenant all'apertura,
+ * quindi qui niente transazione del test attorno ai metodi.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class TenantIsolationTest {
+
+    @Autowired
+    private ContattoRepository repo;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void tearDown() {
+        jdbc.update("DELETE FROM contatto");
+    }
+
+    private <T> T as(String tenant, Supplier<T> action) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        return TenantContext.callAs(tenant, () -> tx.execute(status -> action.get()));
+    }
+
+    @Test
+    void ogniTenant_vedeSoloIPropriContatti() {
+        Contatto mario = as("acme", () -> repo.save(new Contatto(null, "Mario", "Rossi", "111", "mario@acme.com")));
+        as("globex", () -> repo.save(new Contatto(null, "Mario", "Verdi", "222", "mario@globex.com")));
+
+        assertEquals(List.of("Rossi"), as("acme", () -> repo.findByNomeLike("mar")).stream()
+                .map(ContattoResponse::getCognome).toList());
+        assertEquals(List.of("Verdi"), as("globex", () -> repo.findByNomeLike("mar")).stream()
+                .map(ContattoResponse::getCognome).toList());
+        assertTrue(as("globex", () -> repo.findResponseById(mario.getId())).isEmpty());
+        assertEquals(0L, (long) as(TenantContext.DEFAULT, repo::count));
+
+        assertEquals("acme", jdbc.queryForObject("SELECT tenant_id FROM contatto WHERE id = ?", String.class,
+                mario.getId()));
+        assertEquals(List.of("acme", "globex"), as(TenantContext.ROOT, repo::findTenantIds).stream().sorted().toList());
+    }
+
+    @Test
+    void indiceComposito_usatoPerLaListaDelTenant() {
+        String plan = jdbc.queryForObject("EXPLAIN SELECT id FROM contatto WHERE tenant_id = 'acme' "
+                + "AND cognome = 'Rossi' ORDER BY cognome, nome, id", String.class);
+        assertTrue(plan.contains("IDX_CONTATTO_TENANT_COGNOME_NOME_ID"), plan);
+    }
+
+    @Test
+    void etagDelleListe_diversoTraTenantConLeStesseScritture() {
+        ContattoRevisions revisions = new ContattoRevisions();
+
+        // due tenant nuovi, entrambi alla revisione 0: una copia in cache dell'uno non vale per l'altro
+        String acme = TenantContext.callAs("acme", revisions::etag);
+        String globex = TenantContext.callAs("globex", revisions::etag);
+        assertNotEquals(acme, globex);
+
+        revisions.advance("acme");
+        revisions.advance("globex");
+        assertNotEquals(TenantContext.callAs("acme", revisions::etag), TenantContext.callAs("globex", revisions::etag));
+        assertNotEquals(acme, TenantContext.callAs("acme", revisions::etag));
+    }
+}